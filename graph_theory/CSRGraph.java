@@ -0,0 +1,574 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+import algorithms.search_sort.Sort;
+
+// Implementation of Directed, Simple graph as Compressed Sparse Row (CSR) arrays
+// Immutable: built once from the same [Node1, Node2, Weight] edges as GraphHT
+// Edges of node u are the edge ids [offsets[u], offsets[u + 1]):
+//   targets[e]: end node of edge e, weights[e]: its weight
+// Neighbour lists are sorted by target; duplicate edges keep the last weight
+// (same as GraphHT.addEdge)
+
+// Space: (n + 1) + 2m ints, no object per edge
+// Neighbour iteration is a scan over 2 contiguous arrays (cache-friendly)
+
+public class CSRGraph implements Graph {
+    final int num_nodes;
+    final int[] offsets;
+    final int[] targets;
+    final int[] weights;
+
+    // Below this degree, neighbour lists are sorted with insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    public CSRGraph(int[][] edges, int num_nodes){
+        int m = edges.length;
+        int[] sources = new int[m];
+        int[] ends = new int[m];
+        int[] edge_weights = new int[m];
+        for (int i = 0; i < m; i++){
+            sources[i] = edges[i][0];
+            ends[i] = edges[i][1];
+            edge_weights[i] = edges[i][2];
+        }
+
+        this.num_nodes = num_nodes;
+        this.offsets = new int[num_nodes + 1];
+        int size = build(num_nodes, sources, ends, edge_weights, m, offsets);
+        this.targets = size == m ? ends : Arrays.copyOf(ends, size);
+        this.weights = size == m ? edge_weights : Arrays.copyOf(edge_weights, size);
+    }
+
+    CSRGraph(int num_nodes, int[] sources, int[] ends, int[] edge_weights, int m){
+        // Build from parallel edge arrays (first m entries), which are reused
+        this.num_nodes = num_nodes;
+        this.offsets = new int[num_nodes + 1];
+        int size = build(num_nodes, sources, ends, edge_weights, m, offsets);
+        this.targets = Arrays.copyOf(ends, size);
+        this.weights = Arrays.copyOf(edge_weights, size);
+    }
+
+    CSRGraph(int num_nodes, int[] offsets, int[] targets, int[] weights){
+        // Wrap arrays already in CSR form (grouped by source, sorted by target,
+        // no duplicates), no copy. Null arrays for a subclass that overrides the accessors
+        this.num_nodes = num_nodes;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    private static int build(int num_nodes, int[] sources, int[] ends, int[] edge_weights, int m, int[] offsets){
+        // Group the edges by source, in place in `ends` & `edge_weights`
+        // Fill `offsets`, return the number of edges left after removing duplicates
+
+        // 1. Count out-degrees, prefix sum gives where each node's edges start
+        int[] starts = new int[num_nodes + 1];
+        for (int i = 0; i < m; i++){
+            int source = sources[i];
+            int target = ends[i];
+            if (source < 0 || source >= num_nodes || target < 0 || target >= num_nodes){
+                throw new IllegalArgumentException("Edge " + i + " [" + source + ", " + target
+                    + "] is outside nodes [0, " + num_nodes + ")");
+            }
+            starts[source + 1]++;
+        }
+        for (int u = 0; u < num_nodes; u++){
+            starts[u + 1] += starts[u];
+        }
+
+        // 2. Scatter by source, keeping input order (counting sort)
+        int[] grouped_targets = new int[m];
+        int[] grouped_weights = new int[m];
+        int[] next = Arrays.copyOf(starts, num_nodes);
+        for (int i = 0; i < m; i++){
+            int pos = next[sources[i]]++;
+            grouped_targets[pos] = ends[i];
+            grouped_weights[pos] = edge_weights[i];
+        }
+
+        // 3. Sort each neighbour list by target (stable), and keep only the
+        // last of duplicated edges
+        int write = 0;
+        for (int u = 0; u < num_nodes; u++){
+            int low = starts[u];
+            int high = starts[u + 1];
+            sortNeighbours(grouped_targets, grouped_weights, low, high);
+            offsets[u] = write;
+            for (int i = low; i < high; i++){
+                if (i + 1 < high && grouped_targets[i + 1] == grouped_targets[i]){
+                    continue;
+                }
+                ends[write] = grouped_targets[i];
+                edge_weights[write] = grouped_weights[i];
+                write++;
+            }
+        }
+        offsets[num_nodes] = write;
+        return write;
+    }
+
+    static void sortNeighbours(int[] targets, int[] weights, int low, int high){
+        // Stable sort of [low, high) by target, moving weights along
+        if (high - low <= INSERTION_SORT_THRESHOLD){
+            for (int i = low + 1; i < high; i++){
+                int target = targets[i];
+                int weight = weights[i];
+                int j = i - 1;
+                while (j >= low && targets[j] > target){
+                    targets[j + 1] = targets[j];
+                    weights[j + 1] = weights[j];
+                    j--;
+                }
+                targets[j + 1] = target;
+                weights[j + 1] = weight;
+            }
+            return;
+        }
+        int[] keys = Arrays.copyOfRange(targets, low, high);
+        int[] payload = Arrays.copyOfRange(weights, low, high);
+        Sort.sortByKey(keys, payload);
+        System.arraycopy(keys, 0, targets, low, keys.length);
+        System.arraycopy(payload, 0, weights, low, payload.length);
+    }
+
+    //-----------------
+    // Accessors: every algorithm reads the graph through these
+    // (MappedGraph overrides them to read a memory-mapped file instead of the arrays)
+
+    public int numNodes(){
+        return num_nodes;
+    }
+
+    public int numEdges(){
+        return offsets[num_nodes];
+    }
+
+    public int edgeStart(int node){
+        // First edge id of `node`
+        return offsets[node];
+    }
+
+    public int edgeEnd(int node){
+        // One past the last edge id of `node`
+        return offsets[node + 1];
+    }
+
+    public int edgeTarget(int edge){
+        return targets[edge];
+    }
+
+    public int edgeWeight(int edge){
+        return weights[edge];
+    }
+
+    public int outDegree(int node){
+        return edgeEnd(node) - edgeStart(node);
+    }
+
+    public int edgeSource(int edge){
+        // Node owning `edge`: binary search on the offsets, O(log(n))
+        int low = 0;
+        int high = num_nodes - 1;
+        while (low < high){
+            int mid = (low + high + 1) >>> 1;
+            if (edgeStart(mid) <= edge){
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public int[] edgeSources(){
+        // Source of every edge id, O(n + m)
+        int[] sources = new int[numEdges()];
+        for (int u = 0; u < num_nodes; u++){
+            Arrays.fill(sources, edgeStart(u), edgeEnd(u), u);
+        }
+        return sources;
+    }
+
+    public CSRGraph transpose(){
+        // Same nodes with every edge reversed (v -> u for each u -> v):
+        // the in-neighbours of each node, O(n + m)
+        int m = numEdges();
+        int[] sources = edgeSources();
+        int[] ends = new int[m];
+        int[] edge_weights = new int[m];
+        for (int e = 0; e < m; e++){
+            ends[e] = edgeTarget(e);
+            edge_weights[e] = edgeWeight(e);
+        }
+        return new CSRGraph(num_nodes, ends, sources, edge_weights, m);
+    }
+
+    //-----------------
+    // Search
+
+    // Helper functions to re-create travelled paths
+    static void findPath(int[] parents, LinkedList<Integer> path, int start, int search_elem){
+        int node = search_elem;
+        path.addFirst(node);
+        while (node != start){
+            node = parents[node];
+            path.addFirst(node);
+        }
+    }
+
+    // BFS: Breadth-first search: O(V + E)
+    // Return the number of edges from start to search_elem (-1 if not found),
+    // and fill `path` with the nodes on the way
+    public int BFS(int start, int search_elem, LinkedList<Integer> path){
+        if (start == search_elem){
+            path.add(start);
+            return 0;
+        }
+        // Parents pointer, -1 for not visited yet
+        int[] parents = new int[num_nodes];
+        Arrays.fill(parents, -1);
+        int[] dists = new int[num_nodes];
+        int[] queue = new int[num_nodes];
+        int head = 0;
+        int tail = 0;
+
+        parents[start] = start;
+        queue[tail++] = start;
+        while (head < tail){
+            int node = queue[head++];
+            for (int e = edgeStart(node); e < edgeEnd(node); e++){
+                int neighbour = edgeTarget(e);
+                if (parents[neighbour] != -1){
+                    continue;
+                }
+                parents[neighbour] = node;
+                dists[neighbour] = dists[node] + 1;
+                if (neighbour == search_elem){
+                    findPath(parents, path, start, search_elem);
+                    return dists[neighbour];
+                }
+                queue[tail++] = neighbour;
+            }
+        }
+        return -1;
+    }
+
+    // DFS: Depth-first Search: O(V + E)
+    // Explicit stack with a cursor (next edge to try) per node, no recursion
+    public boolean DFS(int start, int search_elem, LinkedList<Integer> path){
+        if (start == search_elem){
+            path.add(start);
+            return true;
+        }
+        int[] parents = new int[num_nodes];
+        Arrays.fill(parents, -1);
+        int[] cursor = new int[num_nodes];
+        int[] stack = new int[num_nodes];
+        int top = 0;
+
+        parents[start] = start;
+        cursor[start] = edgeStart(start);
+        stack[top++] = start;
+        while (top > 0){
+            int node = stack[top - 1];
+            if (cursor[node] == edgeEnd(node)){
+                // All neighbours done: backtrack
+                top--;
+                continue;
+            }
+            int neighbour = edgeTarget(cursor[node]++);
+            if (parents[neighbour] != -1){
+                continue;
+            }
+            parents[neighbour] = node;
+            if (neighbour == search_elem){
+                findPath(parents, path, start, search_elem);
+                return true;
+            }
+            cursor[neighbour] = edgeStart(neighbour);
+            stack[top++] = neighbour;
+        }
+        return false;
+    }
+
+    //--------------------
+    // Shortest path
+
+    // Djikstra algorithm, stops once search_elem is settled
+    // See ShortestPaths (indexed 4-ary heap with decrease-key)
+    // Time complexity: O((V + E) log(V)), POSITIVE weights only
+    // Return the cost (Integer.MAX_VALUE if it doesn't fit in an int), or -1 if unreachable
+    public int Djikstra(int start, int search_elem, LinkedList<Integer> path){
+        ShortestPaths paths = ShortestPaths.dijkstra(this, start, search_elem);
+        if (!paths.path(search_elem, path)){
+            return -1;
+        }
+        return clampCost(paths.dists[search_elem]);
+    }
+
+    // Bellman-Ford algorithm, used for negative weights
+    // Parallel worklist rounds with early exit (ShortestPaths.bellmanFord)
+    // Time complexity: O(V * E) worst case, far less when distances settle quickly
+    // Return minimum distance from source to all nodes (at corresponding index,
+    // Integer.MAX_VALUE if unreachable, clamped to the int range); or empty array
+    // if a negative cycle is reachable from start (ShortestPaths.negative_cycle has it)
+    public int[] BellmanFord(int start){
+        return clampDistances(ShortestPaths.bellmanFord(this, start));
+    }
+
+    static int[] clampDistances(ShortestPaths paths){
+        if (paths.negative_cycle != null){
+            return new int[0];
+        }
+        int[] results = new int[paths.dists.length];
+        for (int node = 0; node < results.length; node++){
+            results[node] = clampCost(paths.dists[node]);
+        }
+        return results;
+    }
+
+    static int clampCost(long cost){
+        // Long path cost -> int result of the Graph methods, saturated instead of wrapped
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, cost));
+    }
+
+    // ----------------------------
+    // Topological sort: Kahn's algorithm, O(V + E)
+    // Return the order as Queue, or null if there is a cycle
+    public Queue<Integer> KahnSort(){
+        int[] indegree = new int[num_nodes];
+        for (int e = 0; e < numEdges(); e++){
+            indegree[edgeTarget(e)]++;
+        }
+
+        // The queue array ends up holding the sort results
+        int[] queue = new int[num_nodes];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < num_nodes; i++){
+            if (indegree[i] == 0){
+                queue[tail++] = i;
+            }
+        }
+        while (head < tail){
+            int node = queue[head++];
+            for (int e = edgeStart(node); e < edgeEnd(node); e++){
+                int neighbour = edgeTarget(e);
+                if (--indegree[neighbour] == 0){
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+
+        if (tail < num_nodes){
+            return null;
+        }
+        Queue<Integer> sort_results = new LinkedList<Integer>();
+        for (int node: queue){
+            sort_results.add(node);
+        }
+        return sort_results;
+    }
+
+    // Level-synchronous parallel Kahn: the nodes of each level (build wave) only
+    // depend on earlier levels, see ParallelKahn. Return null if there is a cycle
+    public int[][] KahnLevels(){
+        return ParallelKahn.levels(this);
+    }
+
+    // Incremental order (Pearce-Kelly): repaired on each addEdge instead of sorting
+    // again, a cycle is reported by the addEdge closing it
+    // Throw IllegalArgumentException if the graph already has a cycle
+    public IncrementalTopologicalOrder PearceKelly(){
+        return new IncrementalTopologicalOrder(this);
+    }
+
+    // -------------------------
+    // Minimum spanning tree (UNDIRECTED graph: both directions of each edge)
+    // Both return a spanning forest: one tree per connected component
+
+    // Prim's algorithm with a heap of (weight, edge id) packed in a long:
+    // weight in the high 32 bits, so longs compare like weights
+    // Time complexity: O(E log(V))
+    public CSRGraph Prim(){
+        int[] tree_sources = new int[num_nodes];
+        int[] tree_targets = new int[num_nodes];
+        int[] tree_weights = new int[num_nodes];
+        int tree_size = 0;
+
+        boolean[] visited = new boolean[num_nodes];
+        long[] heap = new long[16];
+        int heap_size = 0;
+
+        for (int root = 0; root < num_nodes; root++){
+            if (visited[root]){
+                continue;
+            }
+            // Grow a tree from `root`
+            int node = root;
+            visited[node] = true;
+            while (true){
+                // Add all edges to nodes outside the tree
+                for (int e = edgeStart(node); e < edgeEnd(node); e++){
+                    if (visited[edgeTarget(e)]){
+                        continue;
+                    }
+                    if (heap_size == heap.length){
+                        heap = Arrays.copyOf(heap, 2 * heap_size);
+                    }
+                    heap[heap_size] = ((long) edgeWeight(e) << 32) | e;
+                    siftUp(heap, heap_size);
+                    heap_size++;
+                }
+
+                // Take the lightest edge leaving the tree
+                int edge = -1;
+                while (heap_size > 0 && edge == -1){
+                    int e = (int) heap[0];
+                    heap_size--;
+                    heap[0] = heap[heap_size];
+                    siftDown(heap, 0, heap_size);
+                    if (!visited[edgeTarget(e)]){
+                        edge = e;
+                    }
+                }
+                if (edge == -1){
+                    break;
+                }
+
+                node = edgeTarget(edge);
+                visited[node] = true;
+                tree_sources[tree_size] = edgeSource(edge);
+                tree_targets[tree_size] = node;
+                tree_weights[tree_size] = edgeWeight(edge);
+                tree_size++;
+            }
+        }
+        return new CSRGraph(num_nodes, tree_sources, tree_targets, tree_weights, tree_size);
+    }
+
+    private static void siftUp(long[] heap, int i){
+        long key = heap[i];
+        while (i > 0){
+            int parent = (i - 1) / 2;
+            if (heap[parent] <= key){
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = key;
+    }
+
+    private static void siftDown(long[] heap, int i, int n){
+        long key = heap[i];
+        int child;
+        while ((child = 2 * i + 1) < n){
+            if (child + 1 < n && heap[child + 1] < heap[child]){
+                child++;
+            }
+            if (heap[child] >= key){
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = key;
+    }
+
+    // Kruskal's algorithm: Filter-Kruskal over primitive edge arrays, with a
+    // union-find (union by rank & path compression), see MinimumSpanningForest
+    // Time complexity: O(E + V log(V) log(E / V)) expected, sorting & filtering in parallel
+    public CSRGraph Kruskal(){
+        return MinimumSpanningForest.filterKruskal(this);
+    }
+
+    // Boruvka's algorithm: lightest edge out of every component, all components
+    // merged at once, in parallel (see MinimumSpanningForest)
+    // Time complexity: O(E log(V)) work in O(log(V)) parallel rounds
+    public CSRGraph Boruvka(){
+        return MinimumSpanningForest.boruvka(this);
+    }
+
+    @Override
+    public String toString(){
+        // Same format as GraphHT.graph: {node={neighbour=weight, ...}, ...}
+        StringBuilder builder = new StringBuilder("{");
+        for (int u = 0; u < num_nodes; u++){
+            if (outDegree(u) == 0){
+                continue;
+            }
+            if (builder.length() > 1){
+                builder.append(", ");
+            }
+            builder.append(u).append("={");
+            for (int e = edgeStart(u); e < edgeEnd(u); e++){
+                if (e > edgeStart(u)){
+                    builder.append(", ");
+                }
+                builder.append(edgeTarget(e)).append('=').append(edgeWeight(e));
+            }
+            builder.append('}');
+        }
+        return builder.append('}').toString();
+    }
+
+    public static void main(String[] args) {
+        // Same undirected test graph as GraphHT, through the common interface
+        int[][] test_edges = {
+            {0, 1, 5}, {1, 0, 5},
+            {1, 2, 3}, {1, 3, 5}, {2, 1, 3}, {3, 1, 5},
+            {2, 3, 4}, {3, 2, 4},
+            {3, 4, 9}, {3, 5, 7}, {4, 3, 9}, {5, 3, 7},
+            {4, 5, 8}, {5, 4, 8}};
+        Graph testGraph = new CSRGraph(test_edges, 6);
+
+        LinkedList<Integer> BFS_path = new LinkedList<Integer>();
+        long start = System.nanoTime();
+        System.out.println("BFS test: " + testGraph.BFS(1, 5, BFS_path));
+        System.out.println("BFS path: " + BFS_path);
+        long end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        LinkedList<Integer> DFS_path = new LinkedList<Integer>();
+        start = System.nanoTime();
+        System.out.println("DFS test: " + testGraph.DFS(1, 5, DFS_path));
+        System.out.println("DFS path: " + DFS_path);
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        LinkedList<Integer> Djikstra_path = new LinkedList<Integer>();
+        start = System.nanoTime();
+        System.out.println("Minimum cost: " + testGraph.Djikstra(0, 5, Djikstra_path));
+        System.out.println("Djikstra path: " + Djikstra_path);
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        start = System.nanoTime();
+        System.out.println("Minimum cost: " + Arrays.toString(testGraph.BellmanFord(0)));
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        start = System.nanoTime();
+        System.out.println("Topological sort: " + testGraph.KahnSort());
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        start = System.nanoTime();
+        System.out.println("Prim's tree: " + testGraph.Prim());
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        start = System.nanoTime();
+        System.out.println("Kruskal's tree: " + testGraph.Kruskal());
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
+        start = System.nanoTime();
+        System.out.println("Boruvka's tree: " + testGraph.Boruvka());
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+    }
+}
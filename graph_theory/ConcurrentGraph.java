@@ -0,0 +1,632 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Directed graph that can be queried while edges are added & removed on other threads
+// Version = immutable CSRGraph base + the first `size` entries of an append-only delta log
+// - Writers commit batches of edge inserts & deletes: a batch is appended to the log
+//   under a lock, then a new Snapshot is published (one volatile write)
+// - Readers take the current Snapshot without any lock: it never changes, so a query
+//   sees one consistent graph however long it runs, and writers never wait for it
+// - Compaction: once the log is large, a background thread merges a snapshot into a new
+//   base CSR, then (under the lock) replays the entries committed meanwhile into a
+//   fresh log and swaps. Older snapshots keep their own base & log
+
+// Delta log: entries [source, target, weight, older, kind] in fixed-size chunks, so
+// appending never moves a published entry. heads[u] is the newest entry of node u,
+// `older` links to the previous entry of the same node
+// A snapshot of size p walks the chain of u, skips the entries >= p (committed after it),
+// and the newest entry of each target overrides the base edge (insert: weight, or delete)
+
+// Time complexity: commit O(batch), out-edges of a node O(base degree + d log(d)) with
+// d the node's entries in the log, compaction O(V + E) off the query path
+
+public class ConcurrentGraph {
+    // Entries per chunk & chunks per log: up to 2^28 entries between compactions
+    private static final int CHUNK_BITS = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MAX_CHUNKS = 1 << 14;
+    // Fields of a log entry
+    private static final int SOURCE = 0;
+    private static final int TARGET = 1;
+    private static final int WEIGHT = 2;
+    private static final int OLDER = 3;
+    private static final int KIND = 4;
+    private static final int ENTRY = 5;
+    private static final int INSERT = 0;
+    private static final int DELETE = 1;
+    // Compact once the log holds this many entries, or 1/16 of the base edges if more
+    private static final int MIN_COMPACT_SIZE = 1 << 16;
+
+    private final int num_nodes;
+    private final Object write_lock = new Object();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final AtomicLong compactions = new AtomicLong();
+    private volatile Snapshot current;
+
+    public ConcurrentGraph(int[][] edges, int num_nodes){
+        this(new CSRGraph(edges, num_nodes));
+    }
+
+    public ConcurrentGraph(CSRGraph base){
+        this.num_nodes = base.numNodes();
+        this.current = new Snapshot(base, new Log(num_nodes), 0, 0);
+    }
+
+    public int numNodes(){
+        return num_nodes;
+    }
+
+    public Snapshot snapshot(){
+        // Immutable view of the latest committed version, for one query or many
+        return current;
+    }
+
+    public long compactions(){
+        return compactions.get();
+    }
+
+    //-----------------
+    // Writes
+
+    public Batch batch(){
+        return new Batch(num_nodes);
+    }
+
+    public void addEdge(int[] edge){
+        Batch batch = batch();
+        batch.addEdge(edge);
+        commit(batch);
+    }
+
+    public void removeEdge(int[] edge){
+        Batch batch = batch();
+        batch.removeEdge(edge);
+        commit(batch);
+    }
+
+    public long commit(Batch batch){
+        // Apply all the updates of the batch at once (readers see none or all of them),
+        // return the new version. The batch is copied: it can be cleared & reused
+        if (batch.num_nodes != num_nodes){
+            throw new IllegalArgumentException("Batch of another graph: " + batch.num_nodes
+                + " nodes instead of " + num_nodes);
+        }
+        if (batch.size == 0){
+            return current.version;
+        }
+        if (batch.size > MAX_CHUNKS * CHUNK_SIZE){
+            throw new IllegalArgumentException("Batch of " + batch.size + " updates is larger than the log");
+        }
+        long version;
+        boolean compact;
+        synchronized (write_lock){
+            if (current.log.size + batch.size > MAX_CHUNKS * CHUNK_SIZE){
+                // Log full (writers faster than compaction): compact in the writer
+                compact();
+            }
+            Snapshot latest = current;
+            Log log = latest.log;
+            for (int i = 0; i < batch.size; i++){
+                log.append(batch.sources[i], batch.targets[i], batch.weights[i], batch.kinds[i]);
+            }
+            version = latest.version + 1;
+            current = new Snapshot(latest.base, log, log.size, version);
+            compact = log.size >= Math.max(MIN_COMPACT_SIZE, latest.base.numEdges() / 16);
+        }
+        if (compact && compacting.compareAndSet(false, true)){
+            Thread compaction = new Thread(() -> {
+                try {
+                    compact();
+                } finally {
+                    compacting.set(false);
+                }
+            }, "graph-compaction");
+            compaction.setDaemon(true);
+            compaction.start();
+        }
+        return version;
+    }
+
+    public void compact(){
+        // Merge the log into a new base: the slow part runs without the lock
+        Snapshot snapshot = current;
+        if (snapshot.size == 0){
+            return;
+        }
+        CSRGraph base = snapshot.toCSR();
+        synchronized (write_lock){
+            Snapshot latest = current;
+            if (latest.log != snapshot.log){
+                // Another compaction swapped the log meanwhile
+                return;
+            }
+            // Entries committed while merging go to the new log, on top of the new base
+            Log log = new Log(num_nodes);
+            Log old = latest.log;
+            for (int entry = snapshot.size; entry < old.size; entry++){
+                log.append(old.field(entry, SOURCE), old.field(entry, TARGET),
+                    old.field(entry, WEIGHT), old.field(entry, KIND));
+            }
+            current = new Snapshot(base, log, log.size, latest.version);
+            compactions.incrementAndGet();
+        }
+    }
+
+    // Edge updates to commit together, kept in primitive arrays
+    public static final class Batch {
+        private final int num_nodes;
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int[] weights = new int[16];
+        private int[] kinds = new int[16];
+        private int size = 0;
+
+        private Batch(int num_nodes){
+            this.num_nodes = num_nodes;
+        }
+
+        public void addEdge(int[] edge){
+            // [Node1, Node2, Weight], replaces the weight if the edge exists
+            add(edge[0], edge[1], edge[2], INSERT);
+        }
+
+        public void removeEdge(int[] edge){
+            // [Node1, Node2] (a weight is ignored), no-op if the edge doesn't exist
+            add(edge[0], edge[1], 0, DELETE);
+        }
+
+        public int size(){
+            return size;
+        }
+
+        public void clear(){
+            size = 0;
+        }
+
+        private void add(int source, int target, int weight, int kind){
+            if (source < 0 || source >= num_nodes || target < 0 || target >= num_nodes){
+                throw new IllegalArgumentException("Edge [" + source + ", " + target
+                    + "] is outside nodes [0, " + num_nodes + ")");
+            }
+            if (size == sources.length){
+                sources = Arrays.copyOf(sources, 2 * size);
+                targets = Arrays.copyOf(targets, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+                kinds = Arrays.copyOf(kinds, 2 * size);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            weights[size] = weight;
+            kinds[size] = kind;
+            size++;
+        }
+    }
+
+    // Append-only delta log, written by one writer at a time (under the lock)
+    private static final class Log {
+        final int[][] chunks = new int[MAX_CHUNKS][];
+        // Newest entry of each node, -1 if none
+        final AtomicIntegerArray heads;
+        int size = 0;
+
+        Log(int num_nodes){
+            this.heads = new AtomicIntegerArray(num_nodes);
+            for (int u = 0; u < num_nodes; u++){
+                heads.set(u, -1);
+            }
+        }
+
+        void append(int source, int target, int weight, int kind){
+            int chunk = size >>> CHUNK_BITS;
+            if (chunks[chunk] == null){
+                chunks[chunk] = new int[CHUNK_SIZE * ENTRY];
+            }
+            int[] entries = chunks[chunk];
+            int at = (size & (CHUNK_SIZE - 1)) * ENTRY;
+            entries[at + SOURCE] = source;
+            entries[at + TARGET] = target;
+            entries[at + WEIGHT] = weight;
+            entries[at + OLDER] = heads.get(source);
+            entries[at + KIND] = kind;
+            // Volatile write after the entry is complete: a reader that finds it
+            // from heads also sees its fields (even before it is committed)
+            heads.set(source, size);
+            size++;
+        }
+
+        int field(int entry, int field){
+            return chunks[entry >>> CHUNK_BITS][(entry & (CHUNK_SIZE - 1)) * ENTRY + field];
+        }
+    }
+
+    //-----------------
+    // Reads
+
+    // Immutable graph: base + the first `size` log entries
+    // Safe to share between threads; the traversals below allocate their own state
+    public static final class Snapshot implements Graph {
+        private final CSRGraph base;
+        private final Log log;
+        private final int size;
+        private final long version;
+
+        private Snapshot(CSRGraph base, Log log, int size, long version){
+            this.base = base;
+            this.log = log;
+            this.size = size;
+            this.version = version;
+        }
+
+        public long version(){
+            // Number of batches committed before this snapshot
+            return version;
+        }
+
+        public int numNodes(){
+            return base.numNodes();
+        }
+
+        public int deltaSize(){
+            // Log entries on top of the base (not compacted yet)
+            return size;
+        }
+
+        public Cursor cursor(){
+            return new Cursor();
+        }
+
+        // Out-edges of one node at a time, sorted by target like CSRGraph:
+        // for (cursor.reset(u); cursor.next();) { cursor.target(); cursor.weight(); }
+        // Not thread-safe: one cursor per thread
+        public final class Cursor {
+            // Visible log entries of the node: (target << 32) | chain position (newest 0)
+            private long[] keys = new long[16];
+            private int[] entries = new int[16];
+            // Merged out-edges, when the node has visible log entries
+            private int[] merged_targets = new int[16];
+            private int[] merged_weights = new int[16];
+            private boolean merged;
+            private int position;
+            private int count;
+            private int target;
+            private int weight;
+
+            private Cursor(){
+            }
+
+            public void reset(int node){
+                position = base.edgeStart(node);
+                count = base.edgeEnd(node);
+                merged = false;
+
+                int entry = log.heads.get(node);
+                while (entry >= size){
+                    entry = log.field(entry, OLDER);
+                }
+                if (entry == -1){
+                    // Untouched since the base: read it directly
+                    return;
+                }
+                int k = 0;
+                for (; entry != -1; entry = log.field(entry, OLDER)){
+                    if (k == keys.length){
+                        keys = Arrays.copyOf(keys, 2 * k);
+                        entries = Arrays.copyOf(entries, 2 * k);
+                    }
+                    keys[k] = ((long) log.field(entry, TARGET) << 32) | k;
+                    entries[k] = entry;
+                    k++;
+                }
+                // By target, newest first within a target
+                Arrays.sort(keys, 0, k);
+
+                int capacity = count - position + k;
+                if (merged_targets.length < capacity){
+                    merged_targets = new int[capacity];
+                    merged_weights = new int[capacity];
+                }
+                // Merge with the base edges, both sorted by target
+                int e = position;
+                int end = count;
+                int i = 0;
+                count = 0;
+                while (i < k || e < end){
+                    int delta_target = i < k ? (int) (keys[i] >>> 32) : Integer.MAX_VALUE;
+                    int base_target = e < end ? base.edgeTarget(e) : Integer.MAX_VALUE;
+                    if (base_target < delta_target){
+                        merged_targets[count] = base_target;
+                        merged_weights[count] = base.edgeWeight(e);
+                        count++;
+                        e++;
+                        continue;
+                    }
+                    // The newest entry of the target decides, the base edge & older entries are dropped
+                    int newest = entries[(int) keys[i]];
+                    if (log.field(newest, KIND) == INSERT){
+                        merged_targets[count] = delta_target;
+                        merged_weights[count] = log.field(newest, WEIGHT);
+                        count++;
+                    }
+                    if (base_target == delta_target){
+                        e++;
+                    }
+                    do {
+                        i++;
+                    } while (i < k && (int) (keys[i] >>> 32) == delta_target);
+                }
+                merged = true;
+                position = 0;
+            }
+
+            public boolean next(){
+                if (position == count){
+                    return false;
+                }
+                if (merged){
+                    target = merged_targets[position];
+                    weight = merged_weights[position];
+                } else {
+                    target = base.edgeTarget(position);
+                    weight = base.edgeWeight(position);
+                }
+                position++;
+                return true;
+            }
+
+            public int target(){
+                return target;
+            }
+
+            public int weight(){
+                return weight;
+            }
+        }
+
+        public CSRGraph toCSR(){
+            // Materialize the snapshot: O(V + E)
+            if (size == 0){
+                return base;
+            }
+            int n = base.numNodes();
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[Math.max(16, base.numEdges() + size)];
+            int[] weights = new int[targets.length];
+            int m = 0;
+            Cursor cursor = cursor();
+            for (int u = 0; u < n; u++){
+                offsets[u] = m;
+                for (cursor.reset(u); cursor.next();){
+                    targets[m] = cursor.target();
+                    weights[m] = cursor.weight();
+                    m++;
+                }
+            }
+            offsets[n] = m;
+            return new CSRGraph(n, offsets, Arrays.copyOf(targets, m), Arrays.copyOf(weights, m));
+        }
+
+        //-----------------
+        // Search
+
+        // BFS: Breadth-first search: O(V + E), same results as CSRGraph.BFS
+        public int BFS(int start, int search_elem, LinkedList<Integer> path){
+            if (start == search_elem){
+                path.add(start);
+                return 0;
+            }
+            int n = base.numNodes();
+            int[] parents = new int[n];
+            Arrays.fill(parents, -1);
+            int[] dists = new int[n];
+            int[] queue = new int[n];
+            int head = 0;
+            int tail = 0;
+            Cursor cursor = cursor();
+
+            parents[start] = start;
+            queue[tail++] = start;
+            while (head < tail){
+                int node = queue[head++];
+                for (cursor.reset(node); cursor.next();){
+                    int neighbour = cursor.target();
+                    if (parents[neighbour] != -1){
+                        continue;
+                    }
+                    parents[neighbour] = node;
+                    dists[neighbour] = dists[node] + 1;
+                    if (neighbour == search_elem){
+                        CSRGraph.findPath(parents, path, start, search_elem);
+                        return dists[neighbour];
+                    }
+                    queue[tail++] = neighbour;
+                }
+            }
+            return -1;
+        }
+
+        // DFS keeps a cursor per node on the stack: run on the materialized snapshot
+        public boolean DFS(int start, int search_elem, LinkedList<Integer> path){
+            return toCSR().DFS(start, search_elem, path);
+        }
+
+        //--------------------
+        // Shortest path
+
+        // Djikstra algorithm (indexed heap with decrease-key), stops once search_elem
+        // is settled. Time complexity: O((V + E) log(V)), POSITIVE weights only
+        // Return the cost (saturated like CSRGraph.Djikstra), or -1 if unreachable
+        public int Djikstra(int start, int search_elem, LinkedList<Integer> path){
+            int n = base.numNodes();
+            int[] parents = new int[n];
+            long[] costs = new long[n];
+            Arrays.fill(costs, ShortestPaths.INFINITY);
+            IndexedMinHeap heap = new IndexedMinHeap(n);
+            Cursor cursor = cursor();
+
+            costs[start] = 0;
+            parents[start] = start;
+            heap.insert(start, 0);
+            while (!heap.isEmpty()){
+                int node = heap.pollMin();
+                if (node == search_elem){
+                    CSRGraph.findPath(parents, path, start, search_elem);
+                    return CSRGraph.clampCost(costs[node]);
+                }
+                for (cursor.reset(node); cursor.next();){
+                    int neighbour = cursor.target();
+                    long update_cost = costs[node] + cursor.weight();
+                    if (update_cost < costs[neighbour]){
+                        costs[neighbour] = update_cost;
+                        parents[neighbour] = node;
+                        heap.insertOrDecrease(neighbour, update_cost);
+                    }
+                }
+            }
+            return -1;
+        }
+
+        // Whole-graph algorithms run on the materialized snapshot (O(V + E) extra,
+        // less than the algorithms themselves)
+        public int[] BellmanFord(int start){
+            return toCSR().BellmanFord(start);
+        }
+
+        // ----------------------------
+        // Topological sort: Kahn's algorithm, O(V + E)
+        // Return the order as Queue, or null if there is a cycle
+        public Queue<Integer> KahnSort(){
+            return toCSR().KahnSort();
+        }
+
+        public int[][] KahnLevels(){
+            return toCSR().KahnLevels();
+        }
+
+        public IncrementalTopologicalOrder PearceKelly(){
+            return toCSR().PearceKelly();
+        }
+
+        // -------------------------
+        // Minimum spanning tree (UNDIRECTED graph), as CSRGraph
+        public CSRGraph Prim(){
+            return toCSR().Prim();
+        }
+
+        public CSRGraph Kruskal(){
+            return toCSR().Kruskal();
+        }
+
+        public CSRGraph Boruvka(){
+            return toCSR().Boruvka();
+        }
+
+        @Override
+        public String toString(){
+            return toCSR().toString();
+        }
+    }
+
+    private static long queriesPerSecond(ConcurrentGraph graph, int readers, long millis) throws InterruptedException {
+        // Random point-to-point BFS queries, each on the snapshot current when it starts
+        AtomicLong queries = new AtomicLong();
+        long deadline = System.nanoTime() + millis * 1000000L;
+        Thread[] threads = new Thread[readers];
+        for (int r = 0; r < readers; r++){
+            int seed = r;
+            threads[r] = new Thread(() -> {
+                Random random = new Random(seed);
+                while (System.nanoTime() < deadline){
+                    Snapshot snapshot = graph.snapshot();
+                    snapshot.BFS(random.nextInt(graph.numNodes()), random.nextInt(graph.numNodes()), new LinkedList<Integer>());
+                    queries.incrementAndGet();
+                }
+            });
+            threads[r].start();
+        }
+        for (Thread thread: threads){
+            thread.join();
+        }
+        return queries.get() * 1000 / millis;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = 100_000;
+        int degree = 8;
+        int readers = 2;
+        long millis = 3000;
+        Random random = new Random(42);
+        int[][] edges = new int[n * degree][];
+        for (int i = 0; i < edges.length; i++){
+            edges[i] = new int[]{i / degree, random.nextInt(n), 1 + random.nextInt(100)};
+        }
+        ConcurrentGraph graph = new ConcurrentGraph(edges, n);
+
+        System.out.println("Queries/s, no writer: " + queriesPerSecond(graph, readers, millis));
+
+        // Feed: ~100k updates/s in batches of 1000 (3/4 inserts, 1/4 deletes),
+        // kept to be replayed on a GraphHT afterwards
+        AtomicBoolean running = new AtomicBoolean(true);
+        LinkedList<int[]> feed_log = new LinkedList<int[]>();
+        Thread writer = new Thread(() -> {
+            Random feed = new Random(7);
+            Batch batch = graph.batch();
+            long next = System.nanoTime();
+            while (running.get()){
+                batch.clear();
+                for (int i = 0; i < 1000; i++){
+                    // [Node1, Node2, Weight], weight -1 for a delete
+                    int[] update = {feed.nextInt(n), feed.nextInt(n), feed.nextInt(4) == 0 ? -1 : 1 + feed.nextInt(100)};
+                    if (update[2] == -1){
+                        batch.removeEdge(update);
+                    } else {
+                        batch.addEdge(update);
+                    }
+                    feed_log.add(update);
+                }
+                graph.commit(batch);
+                next += 10_000_000L;
+                long wait = next - System.nanoTime();
+                if (wait > 0){
+                    try {
+                        Thread.sleep(wait / 1000000L, (int) (wait % 1000000L));
+                    } catch (InterruptedException e){
+                        return;
+                    }
+                }
+            }
+        });
+        long start = System.nanoTime();
+        writer.start();
+        long with_writer = queriesPerSecond(graph, readers, millis);
+        running.set(false);
+        writer.join();
+        long elapsed = System.nanoTime() - start;
+        System.out.println("Queries/s, with writer: " + with_writer + " (" + feed_log.size() * 1000000000L / elapsed
+            + " updates/s, " + graph.compactions() + " compactions)");
+
+        // Read cost of the delta alone (no writer competing for the cores)
+        System.out.println("Queries/s, " + graph.snapshot().deltaSize() + " entries in the log: "
+            + queriesPerSecond(graph, readers, millis));
+        Snapshot before = graph.snapshot();
+        graph.compact();
+        System.out.println("Queries/s, after compaction: " + queriesPerSecond(graph, readers, millis));
+
+        GraphHT reference = new GraphHT(edges, n);
+        for (int[] update: feed_log){
+            if (update[2] != -1){
+                reference.addEdge(update);
+            } else if (reference.graph.get(update[0]) != null){
+                reference.removeEdge(update);
+            }
+        }
+        String expected = reference.toCSR().toString();
+        System.out.println("Version " + before.version() + " matches GraphHT: " + before.toCSR().toString().equals(expected)
+            + ", compacted: " + graph.snapshot().toCSR().toString().equals(expected));
+    }
+}
@@ -0,0 +1,59 @@
+package algorithms.graph_theory;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// Lock-free union-find over the nodes 0 to n - 1, for many threads at once
+// - find: path halving with CAS (a lost CAS only means another thread
+//   already shortened the path)
+// - union: link one root under the other with a CAS on the root's parent,
+//   retry if the root was linked meanwhile
+// Roots are linked by id (larger id under the smaller one) instead of by rank:
+// no rank to keep in sync with the parent, trees are kept shallow by path halving
+
+// Time complexity: O(log(n)) amortized per operation without contention
+
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parents;
+
+    public ConcurrentUnionFind(int n){
+        this.parents = new AtomicIntegerArray(n);
+        for (int i = 0; i < n; i++){
+            parents.set(i, i);
+        }
+    }
+
+    public int find(int node){
+        while (true){
+            int parent = parents.get(node);
+            if (parent == node){
+                return node;
+            }
+            int grandparent = parents.get(parent);
+            if (parent != grandparent){
+                parents.compareAndSet(node, parent, grandparent);
+            }
+            node = grandparent;
+        }
+    }
+
+    public boolean connected(int a, int b){
+        // Only exact when no union runs at the same time
+        return find(a) == find(b);
+    }
+
+    public boolean union(int a, int b){
+        // Merge the sets of a and b, false if they already were the same set
+        // Exactly one of several threads merging the same 2 sets gets true
+        while (true){
+            int root_a = find(a);
+            int root_b = find(b);
+            if (root_a == root_b){
+                return false;
+            }
+            int child = Math.max(root_a, root_b);
+            int root = Math.min(root_a, root_b);
+            if (parents.compareAndSet(child, child, root)){
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,659 @@
+package algorithms.graph_theory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+
+// Contraction hierarchies (Geisberger et al.): preprocess once, then answer
+// point-to-point shortest path queries by exploring only a few hundred nodes
+// 1. Preprocessing: contract the nodes one by one, least important first
+//    Contracting v removes it from the graph; for each pair u -> v -> w,
+//    a shortcut u -> w (weight w(u, v) + w(v, w)) keeps the distance,
+//    unless a witness search finds a path u -> w as short that avoids v
+//    Order: lazy min heap by edge difference (shortcuts added - edges removed)
+//    + number of contracted neighbours (spreads the contraction evenly)
+// 2. Query: bidirectional Djikstra where both searches only go UP the hierarchy
+//    (to nodes contracted later); the shortest path's highest node is where they meet
+//    Shortcuts on the path are unpacked through their middle node
+//    Stall-on-demand prunes nodes the search reached by a non-shortest upward path
+
+// The result is immutable data (save/ load it), queries reuse epoch-stamped state
+// like PointToPoint: not thread-safe, use one instance per thread
+// POSITIVE weights only, distances are long (ShortestPaths.INFINITY if unreachable)
+
+public class ContractionHierarchy {
+    private static final int MAGIC = 0x43480001;
+    // Witness searches give up after settling this many nodes (and add the shortcut:
+    // never wrong, only a few more edges)
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final int num_nodes;
+    // rank[v]: position of v in the contraction order
+    private final int[] ranks;
+    // Upward edges u -> w (rank[w] > rank[u]), in CSR form
+    private final int[] up_offsets;
+    private final int[] up_targets;
+    private final long[] up_weights;
+    // Middle node of a shortcut (-1 for an original edge)
+    private final int[] up_middles;
+    // Downward edges u -> w (rank[u] > rank[w]) stored at w, pointing to u:
+    // the upward edges of the reversed graph, for the backward search
+    private final int[] down_offsets;
+    private final int[] down_targets;
+    private final long[] down_weights;
+    private final int[] down_middles;
+
+    private final int shortcuts;
+    private final long preprocessing_millis;
+
+    // Query state, valid where stamp == epoch
+    private final long[] forward_dists;
+    private final int[] forward_parents;
+    private final int[] forward_stamps;
+    private final IndexedMinHeap forward_heap;
+    private final long[] backward_dists;
+    private final int[] backward_parents;
+    private final int[] backward_stamps;
+    private final IndexedMinHeap backward_heap;
+    private int epoch = 0;
+    private int settled = 0;
+
+    private ContractionHierarchy(int num_nodes, int[] ranks, int[] up_offsets, int[] up_targets,
+                                 long[] up_weights, int[] up_middles, int[] down_offsets, int[] down_targets,
+                                 long[] down_weights, int[] down_middles, int shortcuts, long preprocessing_millis){
+        this.num_nodes = num_nodes;
+        this.ranks = ranks;
+        this.up_offsets = up_offsets;
+        this.up_targets = up_targets;
+        this.up_weights = up_weights;
+        this.up_middles = up_middles;
+        this.down_offsets = down_offsets;
+        this.down_targets = down_targets;
+        this.down_weights = down_weights;
+        this.down_middles = down_middles;
+        this.shortcuts = shortcuts;
+        this.preprocessing_millis = preprocessing_millis;
+
+        this.forward_dists = new long[num_nodes];
+        this.forward_parents = new int[num_nodes];
+        this.forward_stamps = new int[num_nodes];
+        this.forward_heap = new IndexedMinHeap(num_nodes);
+        this.backward_dists = new long[num_nodes];
+        this.backward_parents = new int[num_nodes];
+        this.backward_stamps = new int[num_nodes];
+        this.backward_heap = new IndexedMinHeap(num_nodes);
+    }
+
+    public int numNodes(){
+        return num_nodes;
+    }
+
+    public int shortcuts(){
+        return shortcuts;
+    }
+
+    public long preprocessingMillis(){
+        return preprocessing_millis;
+    }
+
+    public int settled(){
+        // Nodes taken out of the heaps by the last query
+        return settled;
+    }
+
+    //-----------------
+    // Preprocessing
+
+    public static ContractionHierarchy build(GraphHT graph){
+        return build(graph.toCSR());
+    }
+
+    public static ContractionHierarchy build(CSRGraph graph){
+        long start = System.nanoTime();
+        Contractor contractor = new Contractor(graph);
+        contractor.contractAll();
+        long millis = (System.nanoTime() - start) / 1000000L;
+        return contractor.result(millis);
+    }
+
+    // Dynamic adjacency list of one node during the contraction
+    private static final class Adjacency {
+        int[] nodes = new int[4];
+        long[] weights = new long[4];
+        int[] middles = new int[4];
+        int size = 0;
+
+        int indexOf(int node){
+            for (int i = 0; i < size; i++){
+                if (nodes[i] == node){
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void add(int node, long weight, int middle){
+            if (size == nodes.length){
+                nodes = Arrays.copyOf(nodes, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            middles[size] = middle;
+            size++;
+        }
+    }
+
+    private static final class Contractor {
+        final int n;
+        // out[u]: edges u -> x, in[u]: edges x -> u (one entry per pair, smallest weight)
+        // Edges to contracted nodes stay: they become the hierarchy's edges
+        final Adjacency[] out;
+        final Adjacency[] in;
+        final boolean[] contracted;
+        final int[] contracted_neighbours;
+        final int[] ranks;
+        int shortcuts = 0;
+
+        // Witness search state
+        final long[] dists;
+        final int[] stamps;
+        final IndexedMinHeap heap;
+        int epoch = 0;
+
+        Contractor(CSRGraph graph){
+            n = graph.numNodes();
+            out = new Adjacency[n];
+            in = new Adjacency[n];
+            for (int v = 0; v < n; v++){
+                out[v] = new Adjacency();
+                in[v] = new Adjacency();
+            }
+            for (int u = 0; u < n; u++){
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++){
+                    int w = graph.edgeTarget(e);
+                    int weight = graph.edgeWeight(e);
+                    if (weight < 0){
+                        throw new IllegalArgumentException("Negative weight on edge " + e + ": use BellmanFord");
+                    }
+                    if (w != u){
+                        // CSR edges are unique per pair
+                        out[u].add(w, weight, -1);
+                        in[w].add(u, weight, -1);
+                    }
+                }
+            }
+            contracted = new boolean[n];
+            contracted_neighbours = new int[n];
+            ranks = new int[n];
+            dists = new long[n];
+            stamps = new int[n];
+            heap = new IndexedMinHeap(n);
+        }
+
+        void contractAll(){
+            IndexedMinHeap order = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++){
+                order.insert(v, priority(v));
+            }
+            int rank = 0;
+            while (!order.isEmpty()){
+                // Lazy update: priorities only grow stale, so re-check the minimum
+                // and put it back if it is no longer the smallest
+                int v = order.pollMin();
+                long current = priority(v);
+                if (!order.isEmpty() && current > order.minKey()){
+                    order.insert(v, current);
+                    continue;
+                }
+                contract(v, true);
+                contracted[v] = true;
+                ranks[v] = rank++;
+            }
+        }
+
+        long priority(int v){
+            int removed = 0;
+            for (int i = 0; i < out[v].size; i++){
+                removed += contracted[out[v].nodes[i]] ? 0 : 1;
+            }
+            for (int i = 0; i < in[v].size; i++){
+                removed += contracted[in[v].nodes[i]] ? 0 : 1;
+            }
+            return 2L * (contract(v, false) - removed) + contracted_neighbours[v];
+        }
+
+        int contract(int v, boolean add_shortcuts){
+            // Shortcuts needed to remove v; add them (and update the neighbours)
+            // if add_shortcuts, else only count them
+            int needed = 0;
+            Adjacency ins = in[v];
+            Adjacency outs = out[v];
+            for (int i = 0; i < ins.size; i++){
+                int u = ins.nodes[i];
+                if (contracted[u]){
+                    continue;
+                }
+                long max_cost = -1;
+                for (int j = 0; j < outs.size; j++){
+                    int w = outs.nodes[j];
+                    if (!contracted[w] && w != u){
+                        max_cost = Math.max(max_cost, ins.weights[i] + outs.weights[j]);
+                    }
+                }
+                if (max_cost == -1){
+                    continue;
+                }
+                witnessSearch(u, v, max_cost);
+                for (int j = 0; j < outs.size; j++){
+                    int w = outs.nodes[j];
+                    if (contracted[w] || w == u){
+                        continue;
+                    }
+                    long cost = ins.weights[i] + outs.weights[j];
+                    if (stamps[w] == epoch && dists[w] <= cost){
+                        // Witness: a path u -> w as short, avoiding v
+                        continue;
+                    }
+                    needed++;
+                    if (add_shortcuts){
+                        addShortcut(u, w, cost, v);
+                    }
+                }
+            }
+            if (add_shortcuts){
+                for (int i = 0; i < ins.size; i++){
+                    contracted_neighbours[ins.nodes[i]]++;
+                }
+                for (int j = 0; j < outs.size; j++){
+                    contracted_neighbours[outs.nodes[j]]++;
+                }
+            }
+            return needed;
+        }
+
+        void addShortcut(int u, int w, long cost, int middle){
+            int i = out[u].indexOf(w);
+            if (i == -1){
+                out[u].add(w, cost, middle);
+                in[w].add(u, cost, middle);
+                shortcuts++;
+            } else if (cost < out[u].weights[i]){
+                out[u].weights[i] = cost;
+                out[u].middles[i] = middle;
+                int j = in[w].indexOf(u);
+                in[w].weights[j] = cost;
+                in[w].middles[j] = middle;
+            }
+        }
+
+        void witnessSearch(int source, int avoid, long max_cost){
+            // Djikstra from source over the remaining graph without `avoid`,
+            // up to distance max_cost (or the settle limit)
+            epoch++;
+            stamps[source] = epoch;
+            dists[source] = 0;
+            heap.insert(source, 0);
+            int settled_nodes = 0;
+            while (!heap.isEmpty() && heap.minKey() <= max_cost && settled_nodes < WITNESS_SETTLE_LIMIT){
+                int node = heap.pollMin();
+                settled_nodes++;
+                Adjacency adj = out[node];
+                for (int i = 0; i < adj.size; i++){
+                    int next = adj.nodes[i];
+                    if (next == avoid || contracted[next]){
+                        continue;
+                    }
+                    long cost = dists[node] + adj.weights[i];
+                    if (stamps[next] != epoch || cost < dists[next]){
+                        stamps[next] = epoch;
+                        dists[next] = cost;
+                        heap.insertOrDecrease(next, cost);
+                    }
+                }
+            }
+            heap.clear();
+        }
+
+        ContractionHierarchy result(long millis){
+            // Split every edge by direction in the hierarchy:
+            // out-lists give the upward edges, in-lists the downward ones
+            int[] up_offsets = new int[n + 1];
+            int[] down_offsets = new int[n + 1];
+            for (int v = 0; v < n; v++){
+                int up = 0;
+                for (int i = 0; i < out[v].size; i++){
+                    up += ranks[out[v].nodes[i]] > ranks[v] ? 1 : 0;
+                }
+                int down = 0;
+                for (int i = 0; i < in[v].size; i++){
+                    down += ranks[in[v].nodes[i]] > ranks[v] ? 1 : 0;
+                }
+                up_offsets[v + 1] = up_offsets[v] + up;
+                down_offsets[v + 1] = down_offsets[v] + down;
+            }
+            int[] up_targets = new int[up_offsets[n]];
+            long[] up_weights = new long[up_offsets[n]];
+            int[] up_middles = new int[up_offsets[n]];
+            int[] down_targets = new int[down_offsets[n]];
+            long[] down_weights = new long[down_offsets[n]];
+            int[] down_middles = new int[down_offsets[n]];
+            for (int v = 0; v < n; v++){
+                int e = up_offsets[v];
+                for (int i = 0; i < out[v].size; i++){
+                    if (ranks[out[v].nodes[i]] > ranks[v]){
+                        up_targets[e] = out[v].nodes[i];
+                        up_weights[e] = out[v].weights[i];
+                        up_middles[e] = out[v].middles[i];
+                        e++;
+                    }
+                }
+                e = down_offsets[v];
+                for (int i = 0; i < in[v].size; i++){
+                    if (ranks[in[v].nodes[i]] > ranks[v]){
+                        down_targets[e] = in[v].nodes[i];
+                        down_weights[e] = in[v].weights[i];
+                        down_middles[e] = in[v].middles[i];
+                        e++;
+                    }
+                }
+            }
+            return new ContractionHierarchy(n, ranks, up_offsets, up_targets, up_weights, up_middles,
+                down_offsets, down_targets, down_weights, down_middles, shortcuts, millis);
+        }
+    }
+
+    //-----------------
+    // Query
+
+    public long query(int source, int target, LinkedList<Integer> path){
+        // Distance source -> target (ShortestPaths.INFINITY if unreachable),
+        // fill `path` with the nodes on the way (shortcuts unpacked)
+        settled = 0;
+        epoch++;
+        if (epoch == Integer.MAX_VALUE){
+            Arrays.fill(forward_stamps, 0);
+            Arrays.fill(backward_stamps, 0);
+            epoch = 1;
+        }
+        forward_stamps[source] = epoch;
+        forward_dists[source] = 0;
+        forward_parents[source] = -1;
+        forward_heap.insert(source, 0);
+        backward_stamps[target] = epoch;
+        backward_dists[target] = 0;
+        backward_parents[target] = -1;
+        backward_heap.insert(target, 0);
+
+        long best = ShortestPaths.INFINITY;
+        int meeting = -1;
+        // Each side stops once its closest node is farther than the best path:
+        // unlike plain bidirectional Djikstra, both searches must run to that point
+        while (!forward_heap.isEmpty() || !backward_heap.isEmpty()){
+            boolean forward_done = forward_heap.isEmpty() || forward_heap.minKey() >= best;
+            boolean backward_done = backward_heap.isEmpty() || backward_heap.minKey() >= best;
+            if (forward_done && backward_done){
+                break;
+            }
+            boolean forward = !forward_done
+                && (backward_done || forward_heap.minKey() <= backward_heap.minKey());
+            IndexedMinHeap heap = forward ? forward_heap : backward_heap;
+            int[] offsets = forward ? up_offsets : down_offsets;
+            int[] targets = forward ? up_targets : down_targets;
+            long[] weights = forward ? up_weights : down_weights;
+            long[] dists = forward ? forward_dists : backward_dists;
+            int[] parents = forward ? forward_parents : backward_parents;
+            int[] stamps = forward ? forward_stamps : backward_stamps;
+            long[] other_dists = forward ? backward_dists : forward_dists;
+            int[] other_stamps = forward ? backward_stamps : forward_stamps;
+
+            int node = heap.pollMin();
+            settled++;
+            long cost = dists[node];
+            if (stalled(node, cost, forward)){
+                continue;
+            }
+            if (other_stamps[node] == epoch && cost + other_dists[node] < best){
+                best = cost + other_dists[node];
+                meeting = node;
+            }
+            for (int e = offsets[node]; e < offsets[node + 1]; e++){
+                int next = targets[e];
+                long update_cost = cost + weights[e];
+                if (stamps[next] != epoch || update_cost < dists[next]){
+                    stamps[next] = epoch;
+                    dists[next] = update_cost;
+                    parents[next] = node;
+                    heap.insertOrDecrease(next, update_cost);
+                }
+            }
+        }
+        forward_heap.clear();
+        backward_heap.clear();
+
+        if (best != ShortestPaths.INFINITY){
+            // source -> meeting (up), then meeting -> target (down)
+            LinkedList<Integer> hierarchy_path = new LinkedList<Integer>();
+            CSRGraph.findPath(forward_parents, hierarchy_path, source, meeting);
+            for (int node = meeting; node != target; ){
+                node = backward_parents[node];
+                hierarchy_path.addLast(node);
+            }
+            unpack(hierarchy_path, path);
+        }
+        return best;
+    }
+
+    private boolean stalled(int node, long cost, boolean forward){
+        // Stall-on-demand: if a higher node already reached by this search has an edge
+        // down to `node` that beats `cost`, this upward path is not a shortest one:
+        // don't grow the search from there
+        int[] offsets = forward ? down_offsets : up_offsets;
+        int[] targets = forward ? down_targets : up_targets;
+        long[] weights = forward ? down_weights : up_weights;
+        long[] dists = forward ? forward_dists : backward_dists;
+        int[] stamps = forward ? forward_stamps : backward_stamps;
+        for (int e = offsets[node]; e < offsets[node + 1]; e++){
+            int higher = targets[e];
+            if (stamps[higher] == epoch && dists[higher] + weights[e] < cost){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void unpack(LinkedList<Integer> hierarchy_path, LinkedList<Integer> path){
+        // Replace every shortcut u -> w by u -> middle -> w, until only original edges are left
+        // (explicit stack: shortcuts can nest as deep as the hierarchy)
+        path.add(hierarchy_path.getFirst());
+        int[] stack = new int[16];
+        Integer previous = null;
+        for (int node: hierarchy_path){
+            if (previous != null){
+                int top = 0;
+                stack[top++] = node;
+                stack[top++] = previous;
+                while (top > 0){
+                    int from = stack[--top];
+                    int to = stack[--top];
+                    int middle = middleOf(from, to);
+                    if (middle == -1){
+                        path.addLast(to);
+                    } else {
+                        if (top + 4 > stack.length){
+                            stack = Arrays.copyOf(stack, stack.length * 2);
+                        }
+                        // from -> middle first, then middle -> to
+                        stack[top++] = to;
+                        stack[top++] = middle;
+                        stack[top++] = middle;
+                        stack[top++] = from;
+                    }
+                }
+            }
+            previous = node;
+        }
+    }
+
+    private int middleOf(int from, int to){
+        // Edge from -> to is upward (stored at from) or downward (stored at to)
+        if (ranks[to] > ranks[from]){
+            for (int e = up_offsets[from]; e < up_offsets[from + 1]; e++){
+                if (up_targets[e] == to){
+                    return up_middles[e];
+                }
+            }
+        } else {
+            for (int e = down_offsets[to]; e < down_offsets[to + 1]; e++){
+                if (down_targets[e] == from){
+                    return down_middles[e];
+                }
+            }
+        }
+        throw new IllegalStateException("No edge " + from + " -> " + to + " in the hierarchy");
+    }
+
+    //-----------------
+    // Serialization: big-endian binary, written & read sequentially
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))){
+            output.writeInt(MAGIC);
+            output.writeInt(num_nodes);
+            output.writeInt(shortcuts);
+            output.writeLong(preprocessing_millis);
+            writeInts(output, ranks);
+            writeInts(output, up_offsets);
+            writeInts(output, up_targets);
+            writeLongs(output, up_weights);
+            writeInts(output, up_middles);
+            writeInts(output, down_offsets);
+            writeInts(output, down_targets);
+            writeLongs(output, down_weights);
+            writeInts(output, down_middles);
+        }
+    }
+
+    public static ContractionHierarchy load(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))){
+            if (input.readInt() != MAGIC){
+                throw new IOException("Not a contraction hierarchy file: " + file);
+            }
+            int num_nodes = input.readInt();
+            int shortcuts = input.readInt();
+            long preprocessing_millis = input.readLong();
+            int[] ranks = readInts(input);
+            int[] up_offsets = readInts(input);
+            int[] up_targets = readInts(input);
+            long[] up_weights = readLongs(input);
+            int[] up_middles = readInts(input);
+            int[] down_offsets = readInts(input);
+            int[] down_targets = readInts(input);
+            long[] down_weights = readLongs(input);
+            int[] down_middles = readInts(input);
+            return new ContractionHierarchy(num_nodes, ranks, up_offsets, up_targets, up_weights, up_middles,
+                down_offsets, down_targets, down_weights, down_middles, shortcuts, preprocessing_millis);
+        }
+    }
+
+    private static void writeInts(DataOutputStream output, int[] values) throws IOException {
+        output.writeInt(values.length);
+        for (int value: values){
+            output.writeInt(value);
+        }
+    }
+
+    private static void writeLongs(DataOutputStream output, long[] values) throws IOException {
+        output.writeInt(values.length);
+        for (long value: values){
+            output.writeLong(value);
+        }
+    }
+
+    private static int[] readInts(DataInputStream input) throws IOException {
+        int[] values = new int[input.readInt()];
+        for (int i = 0; i < values.length; i++){
+            values[i] = input.readInt();
+        }
+        return values;
+    }
+
+    private static long[] readLongs(DataInputStream input) throws IOException {
+        long[] values = new long[input.readInt()];
+        for (int i = 0; i < values.length; i++){
+            values[i] = input.readLong();
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Road-like network (side x side grid, random weights both ways), built as a GraphHT
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int n = side * side;
+        Random random = new Random(42);
+        int[][] edges = new int[4 * n][];
+        int m = 0;
+        for (int node = 0; node < n; node++){
+            if (node % side != side - 1){
+                int weight = 1 + random.nextInt(100);
+                edges[m++] = new int[]{node, node + 1, weight};
+                edges[m++] = new int[]{node + 1, node, weight};
+            }
+            if (node + side < n){
+                int weight = 1 + random.nextInt(100);
+                edges[m++] = new int[]{node, node + side, weight};
+                edges[m++] = new int[]{node + side, node, weight};
+            }
+        }
+        edges = Arrays.copyOf(edges, m);
+        GraphHT graph = new GraphHT(edges, n);
+
+        ContractionHierarchy built = build(graph);
+        System.out.println("Preprocessing: " + built.preprocessingMillis() + " ms, "
+            + built.shortcuts() + " shortcuts (" + m + " edges)");
+
+        Path file = Files.createTempFile("graph", ".ch");
+        built.save(file);
+        ContractionHierarchy hierarchy = load(file);
+        System.out.println("Saved & loaded " + Files.size(file) + " bytes");
+        Files.delete(file);
+
+        int num_queries = 1000;
+        int[] sources = new int[num_queries];
+        int[] targets = new int[num_queries];
+        for (int i = 0; i < num_queries; i++){
+            sources[i] = random.nextInt(n);
+            targets[i] = random.nextInt(n);
+        }
+        PointToPoint baseline = new PointToPoint(new CSRGraph(edges, n));
+        for (int round = 0; round < 3; round++){
+            long ch_time = 0;
+            long baseline_time = 0;
+            long ch_settled = 0;
+            long baseline_settled = 0;
+            int mismatches = 0;
+            for (int i = 0; i < num_queries; i++){
+                long start = System.nanoTime();
+                long dist = hierarchy.query(sources[i], targets[i], new LinkedList<Integer>());
+                ch_time += System.nanoTime() - start;
+                ch_settled += hierarchy.settled();
+
+                start = System.nanoTime();
+                long expected = baseline.bidirectional(sources[i], targets[i], new LinkedList<Integer>());
+                baseline_time += System.nanoTime() - start;
+                baseline_settled += baseline.settled();
+                mismatches += dist == expected ? 0 : 1;
+            }
+            System.out.println("CH query: " + ch_time / 1000L / num_queries + " us, " + ch_settled / num_queries
+                + " settled | bidirectional Djikstra: " + baseline_time / 1000L / num_queries + " us, "
+                + baseline_settled / num_queries + " settled | mismatches: " + mismatches);
+        }
+    }
+}
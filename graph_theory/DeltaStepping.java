@@ -0,0 +1,365 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Parallel single-source shortest paths on a CSRGraph: delta-stepping (Meyer & Sanders)
+// Nodes are grouped into buckets of width delta by tentative distance:
+// bucket i holds the nodes with i * delta <= dist < (i + 1) * delta
+// For each non-empty bucket, in increasing order:
+// 1. Relax the light edges (weight <= delta) of all its nodes in parallel;
+//    nodes improved into the same bucket are processed again, until it is empty
+// 2. Relax the heavy edges (weight > delta) of every node the bucket settled, in parallel:
+//    they can only reach later buckets, so each is relaxed once
+// Distances are lowered with a CAS, so concurrent relaxations keep the smallest
+
+// delta = 1: Dijkstra-like (little parallelism); delta = max weight: Bellman-Ford-like
+// (lots of re-relaxations). Default: max weight / average degree
+// Time complexity: O(V + E) work per bucket phase in the worst case,
+// about O(V + E) in total on graphs with random weights
+
+// Same result as ShortestPaths.dijkstra: the distances are identical; the parents form
+// a shortest path tree, ties broken towards the smallest parent id (whatever the thread
+// schedule was). POSITIVE weights only
+
+public class DeltaStepping {
+    // Bucket window: buckets [current, current + NUM_BINS) are kept in a ring,
+    // nodes further away wait in `overflow` (min heap keyed by bucket), and move to
+    // the ring as soon as the window reaches their bucket
+    private static final int NUM_BINS = 1024;
+    // Smallest number of frontier nodes per parallel task
+    private static final int MIN_CHUNK = 256;
+
+    private final CSRGraph graph;
+    private final long delta;
+    private final AtomicLongArray dists;
+    private final boolean[] settled;
+    // stamps[v] == phase: v is already in the frontier of this phase
+    private final int[] stamps;
+    private int phase = 0;
+
+    private final IntList[] bins = new IntList[NUM_BINS];
+    private final IndexedMinHeap overflow;
+    private long current;
+
+    private DeltaStepping(CSRGraph graph, long delta){
+        int n = graph.numNodes();
+        this.graph = graph;
+        this.delta = delta;
+        this.dists = new AtomicLongArray(n);
+        this.settled = new boolean[n];
+        this.stamps = new int[n];
+        this.overflow = new IndexedMinHeap(n);
+        for (int i = 0; i < NUM_BINS; i++){
+            bins[i] = new IntList();
+        }
+    }
+
+    public static ShortestPaths shortestPaths(CSRGraph graph, int source){
+        return shortestPaths(graph, source, defaultDelta(graph));
+    }
+
+    public static ShortestPaths shortestPaths(CSRGraph graph, int source, long delta){
+        if (delta < 1){
+            throw new IllegalArgumentException("delta must be at least 1: " + delta);
+        }
+        DeltaStepping run = new DeltaStepping(graph, delta);
+        run.solve(source);
+
+        long[] dists = new long[graph.numNodes()];
+        for (int v = 0; v < dists.length; v++){
+            dists[v] = run.dists.get(v);
+        }
+        return new ShortestPaths(source, dists, parentsOf(graph, source, dists));
+    }
+
+    public static long defaultDelta(CSRGraph graph){
+        // Max weight / average degree (at least 1); also rejects negative weights
+        int m = graph.numEdges();
+        int max_weight = IntStream.range(0, m).parallel().map(graph::edgeWeight).reduce(0, (a, b) -> {
+            if (a < 0 || b < 0){
+                return Math.min(a, b);
+            }
+            return Math.max(a, b);
+        });
+        if (max_weight < 0){
+            throw new IllegalArgumentException("Negative edge weight " + max_weight + ": use BellmanFord");
+        }
+        long average_degree = Math.max(1, m / Math.max(1, graph.numNodes()));
+        return Math.max(1, max_weight / average_degree);
+    }
+
+    private void solve(int source){
+        int n = graph.numNodes();
+        for (int v = 0; v < n; v++){
+            dists.set(v, ShortestPaths.INFINITY);
+        }
+        dists.set(source, 0);
+        current = 0;
+        bins[0].add(source);
+
+        while (nextBucket()){
+            IntList bin = bins[(int) (current % NUM_BINS)];
+            IntList frontier = takeFrontier(bin);
+            IntList bucket_nodes = new IntList();
+
+            // 1. Light edges until the bucket stops changing
+            while (frontier.size > 0){
+                bucket_nodes.addAll(frontier);
+                IntList[] pushed = relax(frontier, true);
+                distribute(pushed);
+                frontier = takeFrontier(bin);
+            }
+
+            // 2. Heavy edges, once per settled node (bucket_nodes may repeat a node
+            //    that improved within the bucket: keep its first copy only)
+            IntList unique = new IntList();
+            for (int i = 0; i < bucket_nodes.size; i++){
+                int node = bucket_nodes.data[i];
+                if (!settled[node]){
+                    settled[node] = true;
+                    unique.add(node);
+                }
+            }
+            distribute(relax(unique, false));
+        }
+    }
+
+    private boolean nextBucket(){
+        // Move `current` to the next non-empty bucket, false if there are none left
+        for (int i = 0; i < NUM_BINS; i++){
+            if (bins[(int) ((current + i) % NUM_BINS)].size > 0){
+                current += i;
+                refillWindow();
+                return true;
+            }
+        }
+        // Window empty: restart it at the closest bucket waiting in overflow
+        if (overflow.isEmpty()){
+            return false;
+        }
+        current = overflow.minKey();
+        refillWindow();
+        return true;
+    }
+
+    private void refillWindow(){
+        // Move the overflow nodes whose bucket is now inside the window to the ring
+        // Every overflow bucket was >= current + NUM_BINS when it was added, and current
+        // only grows, so they land after `current` (in ring slots of empty past buckets)
+        while (!overflow.isEmpty() && overflow.minKey() < current + NUM_BINS){
+            int node = overflow.pollMin();
+            if (!settled[node]){
+                addToBucket(node);
+            }
+        }
+    }
+
+    private IntList takeFrontier(IntList bin){
+        // Empty `bin` into a frontier, dropping stale & duplicate entries
+        // (a node is stale here if it improved into an earlier bucket, or was settled)
+        phase++;
+        IntList frontier = new IntList();
+        for (int i = 0; i < bin.size; i++){
+            int node = bin.data[i];
+            if (!settled[node] && stamps[node] != phase && dists.get(node) / delta == current){
+                stamps[node] = phase;
+                frontier.add(node);
+            }
+        }
+        bin.clear();
+        return frontier;
+    }
+
+    private IntList[] relax(IntList nodes, boolean light){
+        // Relax the light (or heavy) edges of `nodes` in parallel
+        // Each task returns the nodes it improved
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunk = Math.max(MIN_CHUNK, nodes.size / (4 * parallelism));
+        int num_chunks = (nodes.size + chunk - 1) / chunk;
+        IntList[] pushed = new IntList[num_chunks];
+        IntStream.range(0, num_chunks).parallel().forEach(c -> {
+            IntList out = new IntList();
+            int end = Math.min(nodes.size, (c + 1) * chunk);
+            for (int i = c * chunk; i < end; i++){
+                int node = nodes.data[i];
+                long cost = dists.get(node);
+                for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++){
+                    int weight = graph.edgeWeight(e);
+                    if ((weight <= delta) != light){
+                        continue;
+                    }
+                    if (weight < 0){
+                        throw new IllegalArgumentException("Negative weight on edge " + e + ": use BellmanFord");
+                    }
+                    int neighbour = graph.edgeTarget(e);
+                    long update_cost = cost + weight;
+                    long old = dists.get(neighbour);
+                    while (update_cost < old){
+                        if (dists.compareAndSet(neighbour, old, update_cost)){
+                            out.add(neighbour);
+                            break;
+                        }
+                        old = dists.get(neighbour);
+                    }
+                }
+            }
+            pushed[c] = out;
+        });
+        return pushed;
+    }
+
+    private void distribute(IntList[] pushed){
+        // Put the improved nodes in the bucket of their (now final for this phase) distance
+        for (IntList out: pushed){
+            for (int i = 0; i < out.size; i++){
+                addToBucket(out.data[i]);
+            }
+        }
+    }
+
+    private void addToBucket(int node){
+        long bucket = dists.get(node) / delta;
+        if (bucket < current + NUM_BINS){
+            bins[(int) (bucket % NUM_BINS)].add(node);
+        } else {
+            // Already waiting: keep the smaller bucket
+            overflow.insertOrDecrease(node, bucket);
+        }
+    }
+
+    private static int[] parentsOf(CSRGraph graph, int source, long[] dists){
+        // Shortest path tree from the final distances: parent of v = smallest u
+        // with an edge u -> v such that dists[u] + weight == dists[v]
+        int n = graph.numNodes();
+        AtomicIntegerArray smallest = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(v -> smallest.set(v, Integer.MAX_VALUE));
+        // 1. Positive weight edges: dists[u] < dists[v], so no cycle can form
+        IntStream.range(0, n).parallel().forEach(u -> {
+            if (dists[u] == ShortestPaths.INFINITY){
+                return;
+            }
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++){
+                int v = graph.edgeTarget(e);
+                int weight = graph.edgeWeight(e);
+                if (weight > 0 && v != source && dists[u] + weight == dists[v]){
+                    smallest.accumulateAndGet(v, u, Math::min);
+                }
+            }
+        });
+
+        int[] parents = new int[n];
+        boolean orphans = false;
+        for (int v = 0; v < n; v++){
+            int parent = smallest.get(v);
+            parents[v] = parent == Integer.MAX_VALUE ? -1 : parent;
+            orphans |= parents[v] == -1 && v != source && dists[v] != ShortestPaths.INFINITY;
+        }
+        if (orphans){
+            adoptOrphans(graph, source, dists, parents);
+        }
+        return parents;
+    }
+
+    private static void adoptOrphans(CSRGraph graph, int source, long[] dists, int[] parents){
+        // 2. Nodes only reached through weight 0 edges: a parent with the same distance
+        // could close a cycle, so grow the tree from the nodes already in it
+        int n = graph.numNodes();
+        int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int v = 0; v < n; v++){
+            if (v == source || parents[v] != -1){
+                queue[tail++] = v;
+            }
+        }
+        while (head < tail){
+            int u = queue[head++];
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++){
+                int v = graph.edgeTarget(e);
+                if (graph.edgeWeight(e) == 0 && v != source && parents[v] == -1 && dists[u] == dists[v]){
+                    parents[v] = u;
+                    queue[tail++] = v;
+                }
+            }
+        }
+    }
+
+    //-----------------
+    // Growable int array (no boxing)
+
+    private static final class IntList {
+        int[] data = new int[16];
+        int size = 0;
+
+        void add(int value){
+            if (size == data.length){
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        void addAll(IntList other){
+            if (size + other.size > data.length){
+                data = Arrays.copyOf(data, Math.max(size + other.size, size * 2));
+            }
+            System.arraycopy(other.data, 0, data, size, other.size);
+            size += other.size;
+        }
+
+        void clear(){
+            size = 0;
+        }
+    }
+
+    public static void main(String[] args){
+        // Random weighted graph: sequential Djikstra vs delta-stepping
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int degree = 8;
+        Random random = new Random(42);
+        int[][] edges = new int[n * degree][];
+        for (int i = 0; i < edges.length; i++){
+            edges[i] = new int[]{i / degree, random.nextInt(n), 1 + random.nextInt(1000)};
+        }
+        CSRGraph graph = new CSRGraph(edges, n);
+        long delta = defaultDelta(graph);
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors() + ", delta: " + delta);
+
+        for (int round = 0; round < 3; round++){
+            long start = System.nanoTime();
+            ShortestPaths expected = ShortestPaths.dijkstra(graph, 0);
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ShortestPaths paths = shortestPaths(graph, 0, delta);
+            long parallel = System.nanoTime() - start;
+
+            System.out.println("dijkstra: " + sequential / 1000000L + " ms, deltaStepping: "
+                + parallel / 1000000L + " ms, same distances: " + Arrays.equals(expected.dists, paths.dists));
+        }
+
+        // Self-check: small deltas with weights far beyond the window (NUM_BINS * delta),
+        // so most nodes go through overflow, on many small graphs
+        int wrong = 0;
+        int graphs = 1000;
+        for (int g = 0; g < graphs; g++){
+            int nodes = 2 + random.nextInt(40);
+            int[][] small_edges = new int[random.nextInt(150)][];
+            for (int i = 0; i < small_edges.length; i++){
+                small_edges[i] = new int[]{random.nextInt(nodes), random.nextInt(nodes), random.nextInt(3000)};
+            }
+            CSRGraph small = new CSRGraph(small_edges, nodes);
+            long[] expected = ShortestPaths.dijkstra(small, 0).dists;
+            for (long small_delta = 1; small_delta <= 8; small_delta *= 2){
+                if (!Arrays.equals(expected, shortestPaths(small, 0, small_delta).dists)){
+                    wrong++;
+                    break;
+                }
+            }
+        }
+        System.out.println("Small deltas (1 to 8), weights up to 3000: " + (graphs - wrong) + "/" + graphs + " graphs match dijkstra");
+    }
+}
@@ -0,0 +1,32 @@
+package algorithms.graph_theory;
+import java.util.LinkedList;
+import java.util.Queue;
+
+// Common interface of the graph backends, so call sites don't depend on the storage:
+// - GraphHT: hash table of hash tables, mutable
+// - CSRGraph: compressed sparse row arrays, immutable, compact & cache-friendly
+// - MappedGraph: a CSRGraph memory-mapped from a binary file, off the Java heap
+// Each node is uniquely labelled from 0 to n - 1;
+// Each edge is represented by a pair of nodes & weight: [Node1, Node2, Weight]
+
+public interface Graph {
+    int numNodes();
+
+    // Search
+    int BFS(int start, int search_elem, LinkedList<Integer> path);
+    boolean DFS(int start, int search_elem, LinkedList<Integer> path);
+
+    // Shortest path (int costs saturate at Integer.MAX_VALUE instead of wrapping)
+    int Djikstra(int start, int search_elem, LinkedList<Integer> path);
+    int[] BellmanFord(int start);
+
+    // Topological sort
+    Queue<Integer> KahnSort();
+    int[][] KahnLevels();
+    IncrementalTopologicalOrder PearceKelly();
+
+    // Minimum spanning tree (undirected graphs), in the same backend
+    Graph Prim();
+    Graph Kruskal();
+    Graph Boruvka();
+}
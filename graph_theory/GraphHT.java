@@ -1,12 +1,12 @@
 package algorithms.graph_theory;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Stack;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.LinkedList;
 import java.util.PriorityQueue;
 
@@ -17,7 +17,7 @@ import java.util.PriorityQueue;
 
 // Other implementation: Adjacency matrix & Adjacency LinkedList
 
-public class GraphHT {
+public class GraphHT implements Graph {
     // Recommended: Easy to implement & quite efficient
     // Graphs as Hash table of hash table
     HashMap<Integer, HashMap<Integer, Integer>> graph = new HashMap<Integer, HashMap<Integer, Integer>>();
@@ -30,6 +30,7 @@ public class GraphHT {
         }
     }
 
+    // Not thread-safe: to query while edges change, see toConcurrent()
     public void addEdge(int[] edge){
         HashMap<Integer, Integer> curAdj = graph.get(edge[0]);
         if (curAdj == null){
@@ -43,6 +44,45 @@ public class GraphHT {
         graph.get(edge[0]).remove(edge[1]);
     }
 
+    public int numNodes(){
+        return num_nodes;
+    }
+
+    // Convert to the immutable CSR backend (same nodes & edges)
+    // Large graphs: MappedGraph.write saves it as a binary file to map later
+    // (MappedGraph.convert goes straight from a text edge list, without GraphHT)
+    public CSRGraph toCSR(){
+        int[][] edges = edgeArrays();
+        return new CSRGraph(num_nodes, edges[0], edges[1], edges[2], edges[0].length);
+    }
+
+    // All edges as parallel primitive arrays: {sources, targets, weights}
+    private int[][] edgeArrays(){
+        int num_edges = 0;
+        for (HashMap<Integer, Integer> adj: graph.values()){
+            num_edges += adj.size();
+        }
+        int[] sources = new int[num_edges];
+        int[] targets = new int[num_edges];
+        int[] weights = new int[num_edges];
+        int i = 0;
+        for (Map.Entry<Integer, HashMap<Integer, Integer>> node: graph.entrySet()){
+            for (Map.Entry<Integer, Integer> edge: node.getValue().entrySet()){
+                sources[i] = node.getKey();
+                targets[i] = edge.getKey();
+                weights[i] = edge.getValue();
+                i++;
+            }
+        }
+        return new int[][]{sources, targets, weights};
+    }
+
+    // Concurrent mode: batched edge updates while other threads query snapshots
+    // (see ConcurrentGraph), starting from the current nodes & edges
+    public ConcurrentGraph toConcurrent(){
+        return new ConcurrentGraph(toCSR());
+    }
+
     //-----------------
     // Search
 
@@ -150,59 +190,52 @@ public class GraphHT {
 
     //--------------------
     // Shortest path
-    // Djikstra algorithm, supported by PriorityQueue (Heap) for optimal minimum extraction
+    // Djikstra algorithm, supported by an indexed min heap (IndexedMinHeap) for optimal 
+    // minimum extraction: each node is in the heap once, and a shorter path found
+    // later lowers its cost in place (decrease-key) instead of adding a new entry
     // Time complexity: O((V + E) log(V)) with heap, or O(V^2) without
     // Used only on POSITIVE weights graph
+    // Return the cost (Integer.MAX_VALUE if it doesn't fit in an int), or -1 if unreachable
+    // (For the full distance & parent arrays, see ShortestPaths on a CSRGraph)
     
     public int Djikstra(int start, int search_elem, LinkedList<Integer> path){
         int[] parents = new int[num_nodes];
 
-        // Extra array of cost to keep track of update
-        // for updating parents
-        int[] costs = new int[num_nodes];
-        Arrays.fill(costs, Integer.MAX_VALUE);
-        // Heap for minimum cost
-        PriorityQueue<ArrayList<Integer>> costHeap = 
-            new PriorityQueue<ArrayList<Integer>>((a, b) -> { return (b.get(1) - a.get(1));});
+        // Costs as long: sums of int weights can overflow an int
+        long[] costs = new long[num_nodes];
+        Arrays.fill(costs, Long.MAX_VALUE);
+        IndexedMinHeap costHeap = new IndexedMinHeap(num_nodes);
 
-        HashSet<Integer> visited = new HashSet<Integer>();
-
-        ArrayList<Integer> cur_info = new ArrayList<Integer>(3);
-        cur_info.add(start);
-        cur_info.add(0);
-        costHeap.add(cur_info);
-        while (visited.size() < num_nodes){
+        costs[start] = 0;
+        costHeap.insert(start, 0);
+        while (!costHeap.isEmpty()){
             // Get the node with current minimum cost
-            ArrayList<Integer> min_node = costHeap.poll();
-            // Could contain visited node
-            while (visited.contains(min_node.get(0))){
-                min_node = costHeap.poll();
-            }
+            int min_node = costHeap.pollMin();
             // Exit when search_elem is marked as minimum node
-            if (min_node.get(0) == search_elem){
+            if (min_node == search_elem){
+                if (start == search_elem){
+                    path.add(start);
+                    return 0;
+                }
                 findPath(parents, path, start, search_elem);
-                return min_node.get(1);
+                return CSRGraph.clampCost(costs[min_node]);
             }
-            visited.add(min_node.get(0));
 
-            // Add new cost for all neighbours
-            Set<Integer> neighbours = graph.get(min_node.get(0)).keySet();
-            for (int neighbour: neighbours){
-                if (visited.contains(neighbour)){
-                    continue;
-                }
-
-                int update_cost = min_node.get(1) + graph.get(min_node.get(0)).get(neighbour);
-                if (update_cost < costs[neighbour]){
-                    costs[neighbour] = update_cost;
-
-                    ArrayList<Integer> neighbour_node = new ArrayList<Integer>(3);
-                    neighbour_node.add(neighbour);
-                    neighbour_node.add(update_cost);
-                    costHeap.add(neighbour_node);
+            HashMap<Integer, Integer> neighbours = graph.get(min_node);
+            if (neighbours == null){
+                continue;
+            }
+            // Update cost for all neighbours (one lookup per edge)
+            for (Map.Entry<Integer, Integer> neighbour: neighbours.entrySet()){
+                int end_node = neighbour.getKey();
+                long update_cost = costs[min_node] + neighbour.getValue();
+                // Visited (minimum) nodes can't be improved with positive weights
+                if (update_cost < costs[end_node]){
+                    costs[end_node] = update_cost;
+                    costHeap.insertOrDecrease(end_node, update_cost);
 
                     // Update parents for tracking path
-                    parents[neighbour] = min_node.get(0);
+                    parents[end_node] = min_node;
                 }
             }
         }
@@ -212,8 +245,8 @@ public class GraphHT {
 
     // Bellman-Ford algorithm, used for negative weights
     // Time complexity: O(V * E)
-    // Return minimum distance from source to all nodes (at corresponding index); 
-    // or empty list if negative cycle exists
+    // Return minimum distance from source to all nodes (at corresponding index,
+    // Integer.MAX_VALUE if unreachable); or empty list if negative cycle exists
 
     // Inefficient compared to Djikstra, but can be used for negative weights
     // Used to detect negative cycle
@@ -221,34 +254,13 @@ public class GraphHT {
     // 1. Without negative cycle: Paths contain at max V nodes
     // 2. With negative cycle: Shorter path with > V nodes
 
-    public int[] BellmanFord(int start){
-        int[] dists = new int[num_nodes];
-        Arrays.fill(dists, Integer.MAX_VALUE);
-        dists[start] = 0;
-
-        // Iterate all possible cases
-        for (int v=0; v < num_nodes - 1; v++){
-            // Iterate through all edges
-            for (int start_node: graph.keySet()){
-                HashMap<Integer, Integer> cur_map = graph.get(start_node);
-                for (int end_node: cur_map.keySet()){
-                    dists[end_node] = Math.min(dists[start_node] + cur_map.get(end_node), 
-                                            dists[end_node]);
-                }
-            }
-        }
+    // Runs on the CSR copy (ShortestPaths.bellmanFord): long distances (no overflow),
+    // only the nodes whose distance changed are relaxed again, in parallel,
+    // and it stops as soon as nothing changes
+    // ShortestPaths.negative_cycle gives the cycle itself
 
-        // Check negative cycle
-        for (int start_node: graph.keySet()){
-            HashMap<Integer, Integer> cur_map = graph.get(start_node);
-            for (int end_node: cur_map.keySet()){
-                if (dists[start_node] + cur_map.get(end_node) < dists[end_node]){
-                    return new int[0];
-                }
-            }
-        }
-
-        return dists;
+    public int[] BellmanFord(int start){
+        return CSRGraph.clampDistances(ShortestPaths.bellmanFord(toCSR(), start));
     }
 
     // ----------------------------
@@ -317,6 +329,22 @@ public class GraphHT {
         }
     }
 
+    // Level-synchronous parallel Kahn (ParallelKahn, on the CSR copy)
+    // Level 0: indegree 0; level k + 1: nodes whose last in-edge comes from level k
+    // Each level is one build wave: its nodes only depend on earlier levels
+    // Return the levels, or null if there is a cycle
+    public int[][] KahnLevels(){
+        return ParallelKahn.levels(toCSR());
+    }
+
+    // Incremental topological order (Pearce-Kelly): after the initial sort, each
+    // IncrementalTopologicalOrder.addEdge only reorders the nodes between the 2 ends
+    // of the edge, and returns the cycle at once if the edge closes one
+    // Throw IllegalArgumentException if the graph already has a cycle
+    public IncrementalTopologicalOrder PearceKelly(){
+        return new IncrementalTopologicalOrder(toCSR());
+    }
+
     // -------------------------
     // Minimum spanning tree
     // Can work for negative weights
@@ -399,47 +427,40 @@ public class GraphHT {
     }
 
     // Kruskal's algorithm
-    // Time complexity: O(E log V)
     // Rank all edges, and pick from smallest to largest
-    // Make sure no cycle is created
+    // Skip the edges closing a cycle: a union-find knows if both ends
+    // are already in the same tree
+    // Edges go to primitive arrays (no Edge object) for MinimumSpanningForest:
+    // Filter-Kruskal, parallel sort, union by rank & path compression
+    // Time complexity: O(E + V log(V) log(E / V)) expected
+    // Return a spanning forest (one tree per connected component)
 
     public GraphHT Kruskal(){
-        GraphHT spanTree = new GraphHT(new int[0][0], this.num_nodes);
-        boolean[] visited = new boolean[this.num_nodes];
-        
-        LinkedList<Edge> edgeList = new LinkedList<Edge>();
-
-        for (int node: graph.keySet()){
-            HashMap<Integer, Integer> edges = graph.get(node);
-            for (int connectNode: edges.keySet()){
-                Edge new_edge = new Edge(node, connectNode, edges.get(connectNode));
-                edgeList.add(new_edge);
-            }
-        }
+        return spanningForest(false);
+    }
 
-        Collections.sort(edgeList, (a, b) -> {return (a.weight - b.weight);});
+    // Boruvka's algorithm: every component picks its lightest outgoing edge,
+    // all of them are added at once, repeat until no edge joins 2 components
+    // Parallel rounds over the same primitive arrays (MinimumSpanningForest)
+    // Time complexity: O(E log(V)) work in O(log(V)) rounds
 
-        while (!edgeList.isEmpty()){
-            // Take shortest edge
-            Edge shortEdge = edgeList.removeFirst();
-            // Check for cycle
-            while (visited[shortEdge.end]){
-                shortEdge = edgeList.removeFirst();
-                if (edgeList.isEmpty()){
-                    return spanTree;
-                }
-            }
-
-            // Add edge to tree and visited
-            int[] curEdge = new int[3];
-            curEdge[0] = shortEdge.start;
-            curEdge[1] = shortEdge.end;
-            curEdge[2] = shortEdge.weight;
-            spanTree.addEdge(curEdge);
+    public GraphHT Boruvka(){
+        return spanningForest(true);
+    }
 
-            visited[shortEdge.end] = true;
+    private GraphHT spanningForest(boolean boruvka){
+        int[][] edges = edgeArrays();
+        int[] sources = edges[0];
+        int[] targets = edges[1];
+        int[] weights = edges[2];
+        int num_edges = sources.length;
+        int[] forest = boruvka
+            ? MinimumSpanningForest.boruvka(this.num_nodes, sources, targets, weights, num_edges)
+            : MinimumSpanningForest.filterKruskal(this.num_nodes, sources, targets, weights, num_edges);
+        GraphHT spanTree = new GraphHT(new int[0][0], this.num_nodes);
+        for (int e: forest){
+            spanTree.addEdge(new int[]{sources[e], targets[e], weights[e]});
         }
-
         return spanTree;
     }
 
@@ -491,6 +512,17 @@ public class GraphHT {
         end = System.nanoTime();
         System.out.println("Takes: " + (end - start) + " ns \n");
 
+        // Topological levels & incremental order (need a DAG)
+        GraphHT dag = new GraphHT(new int[][]{{0, 1, 1}, {0, 2, 1}, {1, 3, 1}, {2, 3, 1}, {3, 4, 1}}, 6);
+        start = System.nanoTime();
+        System.out.println("Topological levels: " + Arrays.deepToString(dag.KahnLevels()));
+        IncrementalTopologicalOrder order = dag.PearceKelly();
+        System.out.println("Add 5 -> 0: cycle " + Arrays.toString(order.addEdge(5, 0))
+            + ", order " + Arrays.toString(order.order()));
+        System.out.println("Add 4 -> 5: cycle " + Arrays.toString(order.addEdge(4, 5)));
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
+
         // Note: Due to only apply on undirected graph, 
         // Kruskal and Prim might contain duplicated edge (eg: 1-2, 2-1)
         // which doesn't really matter as there is no direction
@@ -506,6 +538,12 @@ public class GraphHT {
         System.out.println("Kruskal's tree: " + testGraph.Kruskal().graph);
         end = System.nanoTime();
         System.out.println("Takes: " + (end - start) + " ns \n");
+
+        // Boruvka's algorithm
+        start = System.nanoTime();
+        System.out.println("Boruvka's tree: " + testGraph.Boruvka().graph);
+        end = System.nanoTime();
+        System.out.println("Takes: " + (end - start) + " ns \n");
     }
 
 }
\ No newline at end of file
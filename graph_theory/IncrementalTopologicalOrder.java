@@ -0,0 +1,331 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.Random;
+
+// Topological order kept up to date while edges are added (Pearce & Kelly)
+// positions[u]: place of u in the order, nodes[p]: node at place p
+// Adding source -> target:
+// - positions[source] < positions[target]: the order is still valid, nothing to do
+// - otherwise only the nodes placed between target and source can be out of order:
+//   1. Forward search from target, over nodes placed before source:
+//      reaching source means the edge closes a cycle (reported, edge not added)
+//   2. Backward search from source, over nodes placed after target
+//   3. The places of both sets are pooled & sorted, the backward set takes the first
+//      ones and the forward set the rest, each set keeping its relative order
+// Removing an edge never invalidates the order
+
+// Time complexity: O(d log(d)) per added edge, with d the nodes & edges visited by
+// the 2 searches (at most the region between target and source), instead of
+// O(V + E) for sorting again; O(1) when the edge already agrees with the order
+
+public class IncrementalTopologicalOrder {
+    private final int num_nodes;
+    private final int[] positions;
+    private final int[] nodes;
+    // Out & in adjacency lists (null until the node has an edge)
+    private final int[][] outs;
+    private final int[][] ins;
+    private final int[] out_sizes;
+    private final int[] in_sizes;
+    private int num_edges = 0;
+
+    // Search state, reused: a node is visited when stamps[node] == epoch
+    private final int[] stamps;
+    private int epoch = 0;
+    private final int[] parents;
+    private int[] stack = new int[16];
+    private int[] forward = new int[16];
+    private int[] backward = new int[16];
+    private long[] keys = new long[16];
+
+    public IncrementalTopologicalOrder(int num_nodes){
+        // No edges yet: nodes in id order
+        this.num_nodes = num_nodes;
+        this.positions = new int[num_nodes];
+        this.nodes = new int[num_nodes];
+        this.outs = new int[num_nodes][];
+        this.ins = new int[num_nodes][];
+        this.out_sizes = new int[num_nodes];
+        this.in_sizes = new int[num_nodes];
+        this.stamps = new int[num_nodes];
+        this.parents = new int[num_nodes];
+        for (int u = 0; u < num_nodes; u++){
+            positions[u] = u;
+            nodes[u] = u;
+        }
+    }
+
+    public IncrementalTopologicalOrder(CSRGraph graph){
+        // Start from the edges of a DAG, ordered by ParallelKahn
+        this(graph.numNodes());
+        int[] order = ParallelKahn.order(graph);
+        if (order == null){
+            throw new IllegalArgumentException("The graph has a cycle: no topological order");
+        }
+        for (int p = 0; p < num_nodes; p++){
+            nodes[p] = order[p];
+            positions[order[p]] = p;
+        }
+        for (int u = 0; u < num_nodes; u++){
+            for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++){
+                link(u, graph.edgeTarget(e));
+            }
+        }
+    }
+
+    public int numNodes(){
+        return num_nodes;
+    }
+
+    public int numEdges(){
+        return num_edges;
+    }
+
+    public int position(int node){
+        return positions[node];
+    }
+
+    public boolean precedes(int a, int b){
+        return positions[a] < positions[b];
+    }
+
+    public int[] order(){
+        // Nodes in topological order (a copy)
+        return nodes.clone();
+    }
+
+    public int[] addEdge(int source, int target){
+        // Add source -> target and repair the order: return null,
+        // or, if the edge would close a cycle, don't add it and return the cycle
+        // (cycle[0] = source, cycle[1] = target, ... : cycle[i] -> cycle[i + 1] -> ... -> cycle[0])
+        checkNode(source);
+        checkNode(target);
+        if (source == target){
+            return new int[]{source};
+        }
+        int lower = positions[target];
+        int upper = positions[source];
+        if (lower > upper){
+            link(source, target);
+            return null;
+        }
+
+        // 1. Forward search from target, inside the region (positions < upper)
+        nextEpoch();
+        int forward_size = 0;
+        int top = 0;
+        stamps[target] = epoch;
+        push(top++, target);
+        while (top > 0){
+            int node = stack[--top];
+            forward = append(forward, forward_size++, node);
+            for (int i = 0; i < out_sizes[node]; i++){
+                int neighbour = outs[node][i];
+                if (neighbour == source){
+                    parents[source] = node;
+                    return cycle(source, target);
+                }
+                if (stamps[neighbour] != epoch && positions[neighbour] < upper){
+                    stamps[neighbour] = epoch;
+                    parents[neighbour] = node;
+                    push(top++, neighbour);
+                }
+            }
+        }
+
+        // 2. Backward search from source, inside the region (positions > lower)
+        // Both sets are disjoint: a node in both would have closed the cycle above
+        nextEpoch();
+        int backward_size = 0;
+        stamps[source] = epoch;
+        push(top++, source);
+        while (top > 0){
+            int node = stack[--top];
+            backward = append(backward, backward_size++, node);
+            for (int i = 0; i < in_sizes[node]; i++){
+                int neighbour = ins[node][i];
+                if (stamps[neighbour] != epoch && positions[neighbour] > lower){
+                    stamps[neighbour] = epoch;
+                    push(top++, neighbour);
+                }
+            }
+        }
+
+        // 3. Backward set then forward set, into their pooled places
+        sortByPosition(backward, backward_size);
+        sortByPosition(forward, forward_size);
+        int total = backward_size + forward_size;
+        if (keys.length < total){
+            keys = new long[Math.max(total, 2 * keys.length)];
+        }
+        for (int i = 0; i < backward_size; i++){
+            keys[i] = positions[backward[i]];
+        }
+        for (int i = 0; i < forward_size; i++){
+            keys[backward_size + i] = positions[forward[i]];
+        }
+        Arrays.sort(keys, 0, total);
+        for (int i = 0; i < total; i++){
+            int node = i < backward_size ? backward[i] : forward[i - backward_size];
+            int place = (int) keys[i];
+            positions[node] = place;
+            nodes[place] = node;
+        }
+        link(source, target);
+        return null;
+    }
+
+    public boolean removeEdge(int source, int target){
+        // Remove one source -> target edge, false if there is none
+        checkNode(source);
+        checkNode(target);
+        if (!unlink(outs[source], out_sizes[source], target)){
+            return false;
+        }
+        out_sizes[source]--;
+        unlink(ins[target], in_sizes[target], source);
+        in_sizes[target]--;
+        num_edges--;
+        return true;
+    }
+
+    private void checkNode(int node){
+        if (node < 0 || node >= num_nodes){
+            throw new IllegalArgumentException("Node " + node + " is outside nodes [0, " + num_nodes + ")");
+        }
+    }
+
+    private void link(int source, int target){
+        if (outs[source] == null || out_sizes[source] == outs[source].length){
+            outs[source] = outs[source] == null ? new int[4] : Arrays.copyOf(outs[source], 2 * out_sizes[source]);
+        }
+        outs[source][out_sizes[source]++] = target;
+        if (ins[target] == null || in_sizes[target] == ins[target].length){
+            ins[target] = ins[target] == null ? new int[4] : Arrays.copyOf(ins[target], 2 * in_sizes[target]);
+        }
+        ins[target][in_sizes[target]++] = source;
+        num_edges++;
+    }
+
+    private static boolean unlink(int[] list, int size, int node){
+        // Remove one occurrence of node: the last element takes its place
+        for (int i = 0; i < size; i++){
+            if (list[i] == node){
+                list[i] = list[size - 1];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void nextEpoch(){
+        epoch++;
+        if (epoch == Integer.MAX_VALUE){
+            // Wrapped around: clear the stamps once
+            Arrays.fill(stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    private void push(int top, int node){
+        if (top == stack.length){
+            stack = Arrays.copyOf(stack, 2 * top);
+        }
+        stack[top] = node;
+    }
+
+    private static int[] append(int[] list, int size, int node){
+        if (size == list.length){
+            list = Arrays.copyOf(list, 2 * size);
+        }
+        list[size] = node;
+        return list;
+    }
+
+    private void sortByPosition(int[] list, int size){
+        // Sort list[0, size) by current position: (position << 32) | node
+        if (keys.length < size){
+            keys = new long[Math.max(size, 2 * keys.length)];
+        }
+        for (int i = 0; i < size; i++){
+            keys[i] = ((long) positions[list[i]] << 32) | list[i];
+        }
+        Arrays.sort(keys, 0, size);
+        for (int i = 0; i < size; i++){
+            list[i] = (int) keys[i];
+        }
+    }
+
+    private int[] cycle(int source, int target){
+        // source -> target (the new edge), then the forward search path back to source
+        int length = 1;
+        for (int node = parents[source]; node != target; node = parents[node]){
+            length++;
+        }
+        int[] cycle = new int[length + 1];
+        cycle[0] = source;
+        int node = parents[source];
+        for (int i = length; i >= 1; i--){
+            cycle[i] = node;
+            node = parents[node];
+        }
+        return cycle;
+    }
+
+    public static void main(String[] args){
+        // Build-dependency DAG (as in ParallelKahn), then edges added one at a time:
+        // repair the order each time vs sort again from scratch
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int dependencies = 4;
+        Random random = new Random(42);
+        int[][] edges = new int[(n - 1) * dependencies][];
+        int m = 0;
+        for (int i = 1; i < n; i++){
+            for (int d = 0; d < dependencies; d++){
+                int dependency = Math.max(0, i - 1 - random.nextInt(Math.min(i, 1000)));
+                edges[m++] = new int[]{dependency, i, 1};
+            }
+        }
+        long start = System.nanoTime();
+        IncrementalTopologicalOrder order = new IncrementalTopologicalOrder(new CSRGraph(edges, n));
+        System.out.println("Initial order of " + n + " nodes, " + order.numEdges() + " edges: "
+            + (System.nanoTime() - start) / 1000000L + " ms");
+
+        // New dependencies between nearby targets (either direction): some close a cycle
+        int updates = 100_000;
+        int cycles = 0;
+        int longest_cycle = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < updates; i++){
+            int a = random.nextInt(n);
+            int b = Math.min(n - 1, Math.max(0, a + random.nextInt(2001) - 1000));
+            int[] cycle = order.addEdge(a, b);
+            if (cycle != null){
+                cycles++;
+                longest_cycle = Math.max(longest_cycle, cycle.length);
+            }
+        }
+        long incremental = System.nanoTime() - start;
+        System.out.println(updates + " addEdge: " + incremental / 1000L / updates + " us each, "
+            + cycles + " rejected (cycle, longest " + longest_cycle + " nodes)");
+
+        // Baseline: one full sort of the final graph (what every update used to cost)
+        int[][] final_edges = new int[order.numEdges()][];
+        int e = 0;
+        for (int u = 0; u < n; u++){
+            for (int i = 0; i < order.out_sizes[u]; i++){
+                final_edges[e++] = new int[]{u, order.outs[u][i], 1};
+            }
+        }
+        CSRGraph graph = new CSRGraph(final_edges, n);
+        start = System.nanoTime();
+        graph.KahnSort();
+        System.out.println("One full KahnSort: " + (System.nanoTime() - start) / 1000L + " us");
+
+        boolean valid = true;
+        for (int[] edge: final_edges){
+            valid &= order.precedes(edge[0], edge[1]);
+        }
+        System.out.println("Order still valid: " + valid);
+    }
+}
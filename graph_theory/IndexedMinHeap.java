@@ -0,0 +1,142 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+
+// Indexed d-ary min heap of int ids (0 to capacity - 1) with long keys
+// Unlike PriorityQueue, each id is in the heap at most once and its key can be
+// lowered in place (decrease-key), so nothing is allocated per update
+// - heap[i], keys[i]: id & key at heap position i, children of i at d*i + 1 .. d*i + d
+// - positions[id]: heap position of id, or -1 if not in the heap
+// A 4-ary heap is shallower than a binary heap: fewer levels to sift through,
+// and the d children sit next to each other in memory
+
+// Time complexity: insert/ decreaseKey O(log_d(n)), pollMin O(d log_d(n))
+
+public class IndexedMinHeap {
+    private final int arity;
+    private final int[] heap;
+    private final long[] keys;
+    private final int[] positions;
+    private int size = 0;
+
+    public IndexedMinHeap(int capacity){
+        this(capacity, 4);
+    }
+
+    public IndexedMinHeap(int capacity, int arity){
+        if (arity < 2){
+            throw new IllegalArgumentException("arity must be at least 2: " + arity);
+        }
+        this.arity = arity;
+        this.heap = new int[capacity];
+        this.keys = new long[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public boolean contains(int id){
+        return positions[id] != -1;
+    }
+
+    public long keyOf(int id){
+        return keys[positions[id]];
+    }
+
+    public int peekMin(){
+        return heap[0];
+    }
+
+    public long minKey(){
+        return keys[0];
+    }
+
+    public void insert(int id, long key){
+        if (positions[id] != -1){
+            throw new IllegalArgumentException("Already in the heap: " + id);
+        }
+        siftUp(size++, id, key);
+    }
+
+    public void decreaseKey(int id, long key){
+        // `key` must not be larger than the current key of `id`
+        siftUp(positions[id], id, key);
+    }
+
+    public void insertOrDecrease(int id, long key){
+        // Insert `id`, or lower its key if it is already in the heap
+        int pos = positions[id];
+        if (pos == -1){
+            siftUp(size++, id, key);
+        } else if (key < keys[pos]){
+            siftUp(pos, id, key);
+        }
+    }
+
+    public int pollMin(){
+        // Remove and return the id with the smallest key
+        int min = heap[0];
+        positions[min] = -1;
+        size--;
+        if (size > 0){
+            siftDown(0, heap[size], keys[size]);
+        }
+        return min;
+    }
+
+    public void clear(){
+        // O(size): only the ids still in the heap need resetting
+        for (int i = 0; i < size; i++){
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int pos, int id, long key){
+        // Move the hole at `pos` up until `key` fits, then place `id` there
+        while (pos > 0){
+            int parent = (pos - 1) / arity;
+            if (keys[parent] <= key){
+                break;
+            }
+            place(pos, heap[parent], keys[parent]);
+            pos = parent;
+        }
+        place(pos, id, key);
+    }
+
+    private void siftDown(int pos, int id, long key){
+        while (true){
+            int first_child = arity * pos + 1;
+            if (first_child >= size){
+                break;
+            }
+            // Smallest of the (up to) d children
+            int min_child = first_child;
+            int last_child = Math.min(first_child + arity, size);
+            for (int child = first_child + 1; child < last_child; child++){
+                if (keys[child] < keys[min_child]){
+                    min_child = child;
+                }
+            }
+            if (keys[min_child] >= key){
+                break;
+            }
+            place(pos, heap[min_child], keys[min_child]);
+            pos = min_child;
+        }
+        place(pos, id, key);
+    }
+
+    private void place(int pos, int id, long key){
+        heap[pos] = id;
+        keys[pos] = key;
+        positions[id] = pos;
+    }
+}
@@ -0,0 +1,92 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+
+// ALT heuristic (A*, Landmarks, Triangle inequality) for PointToPoint.aStar
+// Pick k landmark nodes, precompute the distances from & to each of them
+// For any landmark L, by the triangle inequality:
+//   d(v, t) >= d(L, t) - d(L, v)   and   d(v, t) >= d(v, L) - d(t, L)
+// The best of these over all landmarks is an admissible (and consistent) estimate
+// Landmarks are chosen far apart (farthest-first), so they sit "behind" most queries
+
+// Preprocessing: 2k Djikstra runs. Space: 2k longs per node
+
+public class Landmarks implements PointToPoint.Heuristic {
+    private final int[] landmarks;
+    // from[i][v] = d(landmarks[i], v), to[i][v] = d(v, landmarks[i])
+    private final long[][] from;
+    private final long[][] to;
+
+    public Landmarks(CSRGraph graph, int k){
+        this(graph, graph.transpose(), k);
+    }
+
+    public Landmarks(CSRGraph graph, CSRGraph reverse, int k){
+        // reverse: graph.transpose() (or graph itself if it is undirected)
+        int n = graph.numNodes();
+        if (k < 1 || k > n){
+            throw new IllegalArgumentException("Number of landmarks must be in [1, " + n + "]: " + k);
+        }
+        this.landmarks = new int[k];
+        this.from = new long[k][];
+        this.to = new long[k][];
+
+        // Farthest-first: the next landmark is the node farthest from all chosen ones
+        // (start from the node farthest from node 0)
+        long[] closest = ShortestPaths.dijkstra(graph, 0).dists;
+        for (int i = 0; i < k; i++){
+            int landmark = farthest(closest);
+            landmarks[i] = landmark;
+            from[i] = ShortestPaths.dijkstra(graph, landmark).dists;
+            to[i] = ShortestPaths.dijkstra(reverse, landmark).dists;
+            if (i == 0){
+                Arrays.fill(closest, ShortestPaths.INFINITY);
+            }
+            for (int v = 0; v < n; v++){
+                closest[v] = Math.min(closest[v], from[i][v]);
+            }
+            closest[landmark] = -1;
+        }
+    }
+
+    private static int farthest(long[] closest){
+        // Largest finite distance; nodes no landmark reaches come first
+        // (-1 marks the landmarks already chosen)
+        int best = -1;
+        for (int v = 0; v < closest.length; v++){
+            if (closest[v] != -1 && (best == -1 || closest[v] > closest[best])){
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    public int[] landmarks(){
+        return landmarks.clone();
+    }
+
+    @Override
+    public long estimate(int node, int target){
+        long bound = 0;
+        for (int i = 0; i < landmarks.length; i++){
+            long from_node = from[i][node];
+            long from_target = from[i][target];
+            if (from_node != ShortestPaths.INFINITY){
+                if (from_target == ShortestPaths.INFINITY){
+                    // L reaches node but not target: node can't reach target
+                    return ShortestPaths.INFINITY;
+                }
+                bound = Math.max(bound, from_target - from_node);
+            }
+            long to_node = to[i][node];
+            long to_target = to[i][target];
+            if (to_target != ShortestPaths.INFINITY){
+                if (to_node == ShortestPaths.INFINITY){
+                    // target reaches L but node doesn't: node can't reach target
+                    return ShortestPaths.INFINITY;
+                }
+                bound = Math.max(bound, to_node - to_target);
+            }
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,482 @@
+package algorithms.graph_theory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+
+// CSR graph stored in a binary file and memory-mapped: opening it only reads the
+// header, the OS pages the arrays in on demand, and none of it is on the Java heap
+// Same accessors as CSRGraph (it is one), so every CSRGraph algorithm runs on it as is
+
+// File format, all little-endian, every section starts on a 4096-byte page:
+//   header:  magic, format version (int32), num_nodes, num_edges, then the byte position
+//            of the offsets, targets & weights sections (int64)
+//   offsets: num_nodes + 1 int64 (edges of node u: [offsets[u], offsets[u + 1]))
+//   targets: num_edges int32, sorted by target within each node
+//   weights: num_edges int32
+// Offsets are 64-bit so the format holds any edge count; edge ids in the accessors
+// are int, so open() takes up to 2^31 - 1 edges
+
+// A single mapping is at most 2 GB (ByteBuffer indices are int): each section is
+// mapped as 1 GB windows, an access picks the window with a shift & mask
+// (JDK 17: FileChannel.map, MemorySegment is not final before JDK 22)
+
+// Time complexity: open O(1) reads, O(size / 1 GB) mappings; convert O(E log(degree))
+// in 3 passes, with O(V) heap for the degrees
+
+public class MappedGraph extends CSRGraph {
+    private static final int MAGIC = 0x47435352;
+    private static final int FORMAT_VERSION = 1;
+    private static final int PAGE_BYTES = 4096;
+    private static final int HEADER_BYTES = PAGE_BYTES;
+    private static final int WINDOW_BITS = 30;
+    // Values per 1 GB window
+    private static final int INT_WINDOW_BITS = WINDOW_BITS - 2;
+    private static final int LONG_WINDOW_BITS = WINDOW_BITS - 3;
+    private static final int INT_WINDOW_MASK = (1 << INT_WINDOW_BITS) - 1;
+    private static final int LONG_WINDOW_MASK = (1 << LONG_WINDOW_BITS) - 1;
+
+    private final int num_edges;
+    private final LongBuffer[] offset_windows;
+    private final IntBuffer[] target_windows;
+    private final IntBuffer[] weight_windows;
+
+    private MappedGraph(int num_nodes, int num_edges, LongBuffer[] offset_windows,
+                        IntBuffer[] target_windows, IntBuffer[] weight_windows){
+        super(num_nodes, null, null, null);
+        this.num_edges = num_edges;
+        this.offset_windows = offset_windows;
+        this.target_windows = target_windows;
+        this.weight_windows = weight_windows;
+    }
+
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) > 0){
+                // Read the whole header page
+            }
+            header.flip();
+            if (header.remaining() < 48 || header.getInt() != MAGIC){
+                throw new IOException("Not a graph file: " + file);
+            }
+            int format = header.getInt();
+            if (format != FORMAT_VERSION){
+                throw new IOException("Unsupported graph format version " + format + ": " + file);
+            }
+            long num_nodes = header.getLong();
+            long num_edges = header.getLong();
+            long offsets_pos = header.getLong();
+            long targets_pos = header.getLong();
+            long weights_pos = header.getLong();
+            if (num_nodes < 0 || num_nodes >= Integer.MAX_VALUE || num_edges < 0
+                || offsets_pos + 8 * (num_nodes + 1) > targets_pos
+                || targets_pos + 4 * num_edges > weights_pos
+                || weights_pos + 4 * num_edges > channel.size()){
+                throw new IOException("Corrupted graph file header: " + file);
+            }
+            if (num_edges > Integer.MAX_VALUE){
+                throw new IOException(num_edges + " edges: more than the 2^31 - 1 edge ids of CSRGraph: " + file);
+            }
+            // The mappings stay valid after the channel is closed
+            LongBuffer[] offsets = new LongBuffer[windows(num_nodes + 1, LONG_WINDOW_BITS)];
+            for (int w = 0; w < offsets.length; w++){
+                offsets[w] = map(channel, FileChannel.MapMode.READ_ONLY, offsets_pos, num_nodes + 1, 8, w).asLongBuffer();
+            }
+            IntBuffer[] targets = new IntBuffer[windows(num_edges, INT_WINDOW_BITS)];
+            IntBuffer[] weights = new IntBuffer[targets.length];
+            for (int w = 0; w < targets.length; w++){
+                targets[w] = map(channel, FileChannel.MapMode.READ_ONLY, targets_pos, num_edges, 4, w).asIntBuffer();
+                weights[w] = map(channel, FileChannel.MapMode.READ_ONLY, weights_pos, num_edges, 4, w).asIntBuffer();
+            }
+            return new MappedGraph((int) num_nodes, (int) num_edges, offsets, targets, weights);
+        }
+    }
+
+    private static int windows(long count, int window_bits){
+        return (int) Math.max(1, (count + (1L << window_bits) - 1) >>> window_bits);
+    }
+
+    private static ByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long section_pos,
+                                  long count, int width, int window) throws IOException {
+        // Window `window` of a section of `count` values of `width` bytes
+        long window_values = (long) (1 << WINDOW_BITS) / width;
+        long first = window * window_values;
+        long values = Math.max(0, Math.min(window_values, count - first));
+        return channel.map(mode, section_pos + first * width, values * width).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    //-----------------
+    // Accessors (override the CSRGraph arrays)
+
+    @Override
+    public int numEdges(){
+        return num_edges;
+    }
+
+    @Override
+    public int edgeStart(int node){
+        return (int) offset_windows[node >>> LONG_WINDOW_BITS].get(node & LONG_WINDOW_MASK);
+    }
+
+    @Override
+    public int edgeEnd(int node){
+        return edgeStart(node + 1);
+    }
+
+    @Override
+    public int edgeTarget(int edge){
+        return target_windows[edge >>> INT_WINDOW_BITS].get(edge & INT_WINDOW_MASK);
+    }
+
+    @Override
+    public int edgeWeight(int edge){
+        return weight_windows[edge >>> INT_WINDOW_BITS].get(edge & INT_WINDOW_MASK);
+    }
+
+    //-----------------
+    // Writing graph files
+
+    public static void write(CSRGraph graph, Path file) throws IOException {
+        // Save a graph already in memory (eg: GraphHT.toCSR())
+        int n = graph.numNodes();
+        long m = graph.numEdges();
+        try (Output output = new Output(file, n, m)){
+            for (int u = 0; u <= n; u++){
+                output.putOffset(u, u < n ? graph.edgeStart(u) : m);
+            }
+            for (int e = 0; e < m; e++){
+                output.putEdge(e, graph.edgeTarget(e), graph.edgeWeight(e));
+            }
+        }
+    }
+
+    public static void convert(Path edge_list, Path file) throws IOException {
+        // Text edge list -> graph file, one edge per line: "source target weight"
+        // (whitespace separated, lines starting with '#' or '%' are comments)
+        // Nodes are 0 to the largest id; duplicate edges keep the last weight (like GraphHT)
+        // The edges never sit on the heap: only the out-degrees & write cursors do
+
+        // 1. Count the out-degrees (and the nodes)
+        int[] degrees = new int[1024];
+        int n = 0;
+        long m = 0;
+        int[] edge = new int[3];
+        try (EdgeListReader reader = new EdgeListReader(edge_list)){
+            while (reader.next(edge)){
+                n = Math.max(n, Math.max(edge[0], edge[1]) + 1);
+                if (n > degrees.length){
+                    degrees = Arrays.copyOf(degrees, Math.max(n, 2 * degrees.length));
+                }
+                degrees[edge[0]]++;
+                m++;
+            }
+        }
+
+        try (Output output = new Output(file, n, m)){
+            // 2. Scatter the edges to their node's range, in input order
+            long[] next = new long[n + 1];
+            for (int u = 0; u < n; u++){
+                next[u + 1] = next[u] + degrees[u];
+            }
+            long[] starts = next.clone();
+            try (EdgeListReader reader = new EdgeListReader(edge_list)){
+                while (reader.next(edge)){
+                    output.putEdge(next[edge[0]]++, edge[1], edge[2]);
+                }
+            }
+
+            // 3. Sort each neighbour list by target (stable), keep the last of duplicated
+            // edges, and slide the lists down over the removed duplicates
+            int[] targets = new int[16];
+            int[] weights = new int[16];
+            long write = 0;
+            for (int u = 0; u < n; u++){
+                int degree = degrees[u];
+                if (degree > targets.length){
+                    targets = new int[Math.max(degree, 2 * targets.length)];
+                    weights = new int[targets.length];
+                }
+                for (int i = 0; i < degree; i++){
+                    targets[i] = output.target(starts[u] + i);
+                    weights[i] = output.weight(starts[u] + i);
+                }
+                CSRGraph.sortNeighbours(targets, weights, 0, degree);
+                output.putOffset(u, write);
+                for (int i = 0; i < degree; i++){
+                    if (i + 1 < degree && targets[i + 1] == targets[i]){
+                        continue;
+                    }
+                    output.putEdge(write++, targets[i], weights[i]);
+                }
+            }
+            output.putOffset(n, write);
+            // Sections keep their size: the space of removed duplicates stays unused
+            output.setNumEdges(write);
+        }
+    }
+
+    private static long align(long position){
+        return (position + PAGE_BYTES - 1) / PAGE_BYTES * PAGE_BYTES;
+    }
+
+    // Read-write mapping of a new graph file, laid out for n nodes & m edges
+    private static class Output implements AutoCloseable {
+        final FileChannel channel;
+        final MappedByteBuffer header;
+        final LongBuffer[] offsets;
+        final IntBuffer[] targets;
+        final IntBuffer[] weights;
+        final MappedByteBuffer[] mappings;
+
+        Output(Path file, int n, long m) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            long offsets_pos = HEADER_BYTES;
+            long targets_pos = align(offsets_pos + 8 * ((long) n + 1));
+            long weights_pos = align(targets_pos + 4 * m);
+            long end = align(weights_pos + 4 * m);
+            // Mapping past the end grows the file
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putLong(8, n).putLong(16, m)
+                .putLong(24, offsets_pos).putLong(32, targets_pos).putLong(40, weights_pos);
+
+            this.offsets = new LongBuffer[windows((long) n + 1, LONG_WINDOW_BITS)];
+            this.targets = new IntBuffer[windows(m, INT_WINDOW_BITS)];
+            this.weights = new IntBuffer[targets.length];
+            this.mappings = new MappedByteBuffer[offsets.length + 2 * targets.length];
+            int i = 0;
+            for (int w = 0; w < offsets.length; w++){
+                ByteBuffer window = map(channel, FileChannel.MapMode.READ_WRITE, offsets_pos, (long) n + 1, 8, w);
+                mappings[i++] = (MappedByteBuffer) window;
+                offsets[w] = window.asLongBuffer();
+            }
+            for (int w = 0; w < targets.length; w++){
+                ByteBuffer window = map(channel, FileChannel.MapMode.READ_WRITE, targets_pos, m, 4, w);
+                mappings[i++] = (MappedByteBuffer) window;
+                targets[w] = window.asIntBuffer();
+                window = map(channel, FileChannel.MapMode.READ_WRITE, weights_pos, m, 4, w);
+                mappings[i++] = (MappedByteBuffer) window;
+                weights[w] = window.asIntBuffer();
+            }
+            if (channel.size() < end){
+                // Pad the last section to a whole page
+                channel.write(ByteBuffer.allocate(1), end - 1);
+            }
+        }
+
+        void putOffset(int node, long offset){
+            offsets[node >>> LONG_WINDOW_BITS].put(node & LONG_WINDOW_MASK, offset);
+        }
+
+        void putEdge(long edge, int target, int weight){
+            targets[(int) (edge >>> INT_WINDOW_BITS)].put((int) edge & INT_WINDOW_MASK, target);
+            weights[(int) (edge >>> INT_WINDOW_BITS)].put((int) edge & INT_WINDOW_MASK, weight);
+        }
+
+        int target(long edge){
+            return targets[(int) (edge >>> INT_WINDOW_BITS)].get((int) edge & INT_WINDOW_MASK);
+        }
+
+        int weight(long edge){
+            return weights[(int) (edge >>> INT_WINDOW_BITS)].get((int) edge & INT_WINDOW_MASK);
+        }
+
+        void setNumEdges(long m){
+            header.putLong(16, m);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Flush the pages to the file (the header last)
+            for (MappedByteBuffer mapping: mappings){
+                mapping.force();
+            }
+            header.force();
+            channel.close();
+        }
+    }
+
+    // Parser of text edge lists straight from the bytes (no String per line)
+    private static class EdgeListReader implements AutoCloseable {
+        final InputStream input;
+        final Path file;
+        final byte[] buffer = new byte[1 << 16];
+        int position = 0;
+        int limit = 0;
+        long line = 1;
+        int next_byte;
+
+        EdgeListReader(Path file) throws IOException {
+            this.file = file;
+            this.input = Files.newInputStream(file);
+            this.next_byte = read();
+        }
+
+        private int read() throws IOException {
+            // Next byte of the file, -1 at the end
+            if (position == limit){
+                limit = input.read(buffer);
+                position = 0;
+                if (limit <= 0){
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        boolean next(int[] edge) throws IOException {
+            // Read the next edge into `edge`, false at the end of the file
+            while (true){
+                skipBlanks();
+                if (next_byte == -1){
+                    return false;
+                }
+                if (next_byte == '#' || next_byte == '%'){
+                    while (next_byte != -1 && next_byte != '\n'){
+                        next_byte = read();
+                    }
+                    continue;
+                }
+                if (next_byte == '\n'){
+                    next_byte = read();
+                    line++;
+                    continue;
+                }
+                break;
+            }
+            for (int i = 0; i < 3; i++){
+                skipBlanks();
+                edge[i] = readInt();
+            }
+            skipBlanks();
+            if (next_byte != '\n' && next_byte != -1){
+                throw new IOException("Expected \"source target weight\" at line " + line + ": " + file);
+            }
+            if (edge[0] < 0 || edge[1] < 0){
+                throw new IOException("Negative node id at line " + line + ": " + file);
+            }
+            return true;
+        }
+
+        private void skipBlanks() throws IOException {
+            while (next_byte == ' ' || next_byte == '\t' || next_byte == '\r'){
+                next_byte = read();
+            }
+        }
+
+        private int readInt() throws IOException {
+            boolean negative = next_byte == '-';
+            if (negative){
+                next_byte = read();
+            }
+            if (next_byte < '0' || next_byte > '9'){
+                throw new IOException("Expected \"source target weight\" at line " + line + ": " + file);
+            }
+            long value = 0;
+            while (next_byte >= '0' && next_byte <= '9'){
+                value = 10 * value + (next_byte - '0');
+                if (value > Integer.MAX_VALUE + 1L){
+                    throw new IOException("Number out of the int range at line " + line + ": " + file);
+                }
+                next_byte = read();
+            }
+            value = negative ? -value : value;
+            if (value > Integer.MAX_VALUE){
+                throw new IOException("Number out of the int range at line " + line + ": " + file);
+            }
+            return (int) value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+
+    public static void main(String[] args){
+        // Hides CSRGraph.main, which doesn't throw IOException
+        try {
+            demo(args);
+        } catch (IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void demo(String[] args) throws IOException {
+        // Random edge list as text -> graph file -> mapped graph, checked against CSRGraph
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int degree = 8;
+        Random random = new Random(42);
+        Path dir = Files.createTempDirectory("mapped_graph");
+        Path text = dir.resolve("edges.txt");
+        Path file = dir.resolve("edges.graph");
+        int[][] edges = new int[n * degree][];
+        try (BufferedWriter writer = Files.newBufferedWriter(text)){
+            writer.write("# source target weight\n");
+            for (int i = 0; i < edges.length; i++){
+                edges[i] = new int[]{i / degree, random.nextInt(n), 1 + random.nextInt(100)};
+                writer.write(edges[i][0] + " " + edges[i][1] + " " + edges[i][2] + "\n");
+            }
+        }
+
+        long start = System.nanoTime();
+        convert(text, file);
+        System.out.println("Converted " + Files.size(text) + " bytes of text to " + Files.size(file)
+            + " bytes in " + (System.nanoTime() - start) / 1000000L + " ms");
+
+        start = System.nanoTime();
+        MappedGraph mapped = open(file);
+        System.out.println("Opened " + mapped.numNodes() + " nodes, " + mapped.numEdges() + " edges in "
+            + (System.nanoTime() - start) / 1000L + " us");
+
+        start = System.nanoTime();
+        CSRGraph graph = new CSRGraph(edges, n);
+        System.out.println("CSRGraph from int[][] on the heap: " + (System.nanoTime() - start) / 1000000L + " ms");
+
+        boolean same = graph.numEdges() == mapped.numEdges();
+        for (int u = 0; u <= n && same; u++){
+            same = u == n || graph.edgeStart(u) == mapped.edgeStart(u);
+        }
+        for (int e = 0; e < graph.numEdges() && same; e++){
+            same = graph.edgeTarget(e) == mapped.edgeTarget(e) && graph.edgeWeight(e) == mapped.edgeWeight(e);
+        }
+        System.out.println("Same arrays: " + same);
+
+        // Traversals through the common interface, on both
+        for (Graph g: new Graph[]{graph, mapped}){
+            LinkedList<Integer> path = new LinkedList<Integer>();
+            start = System.nanoTime();
+            int hops = g.BFS(0, n - 1, path);
+            long bfs = System.nanoTime() - start;
+            path = new LinkedList<Integer>();
+            start = System.nanoTime();
+            int cost = g.Djikstra(0, n - 1, path);
+            long dijkstra = System.nanoTime() - start;
+            System.out.println(g.getClass().getSimpleName() + ": BFS " + hops + " hops in " + bfs / 1000L
+                + " us, Djikstra cost " + cost + " in " + dijkstra / 1000L + " us, path " + path);
+        }
+
+        Path copy = dir.resolve("copy.graph");
+        write(graph, copy);
+        System.out.println("Written from CSRGraph, same graph: " + open(copy).toString().equals(graph.toString()));
+        Files.delete(text);
+        Files.delete(file);
+        Files.delete(copy);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,358 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+import algorithms.search_sort.ParallelRadixSort;
+
+// Minimum spanning forest engines over edges in primitive parallel arrays
+// (sources[e], targets[e], weights[e]): no object per edge
+// UNDIRECTED graphs: each edge may be given once or in both directions
+// The result is a spanning FOREST: one tree per connected component
+
+// Filter-Kruskal (Osipov, Sanders & Singler):
+// Each edge is packed in a long as (weight << 32) | edge id, so sorting the longs
+// sorts the edges by weight. On a range of edges:
+// 1. Small range: sort it (parallel radix sort) & run Kruskal with a union-find
+// 2. Else: split it around a pivot weight (light edges first), solve the light half,
+//    then filter the heavy half: drop every edge whose ends are already connected
+//    (most of them, on dense graphs), and solve what is left
+// Heavy edges are mostly dropped before they are ever sorted
+// Time complexity: O(E + V log(V) log(E / V)) expected work, partition & filter in parallel
+
+// Boruvka: rounds, every step of a round in parallel:
+// 1. Lightest edge leaving each component (atomic min on the packed edge keys)
+// 2. Add all these edges, merging their components (concurrent union-find)
+// 3. Drop the edges now inside a component (once they are a quarter of the list)
+// Stop when no edge joins 2 components. Each round at least halves the number
+// of components: O(log(V)) rounds, O(E) work each
+// Ties are broken by edge id (the low bits of the key), so the chosen edges can't
+// form a cycle, and both engines return the same forest
+
+// Space: 2 longs per edge (keys + scratch) + union-find
+
+public class MinimumSpanningForest {
+    // Ranges up to max(num_nodes, this) edges go straight to sort + Kruskal
+    private static final int BASE_THRESHOLD = 1 << 16;
+    // Range size per parallel task in partition/ filter
+    private static final int CHUNK = 1 << 16;
+    private static final int PIVOT_SAMPLES = 63;
+
+    private final int num_nodes;
+    private final int[] sources;
+    private final int[] targets;
+    private final long[] keys;
+    private final long[] buffer;
+    private final Random random = new Random(42);
+    private final int[] forest;
+    private int forest_size = 0;
+    // Filter-Kruskal only
+    private UnionFind sets;
+
+    private MinimumSpanningForest(int num_nodes, int[] sources, int[] targets, int[] weights, int m){
+        this.num_nodes = num_nodes;
+        this.sources = sources;
+        this.targets = targets;
+        this.keys = new long[m];
+        this.buffer = new long[m];
+        this.forest = new int[Math.max(0, num_nodes - 1)];
+        IntStream.range(0, m).parallel().forEach(e -> keys[e] = ((long) weights[e] << 32) | e);
+    }
+
+    public static int[] filterKruskal(int num_nodes, int[] sources, int[] targets, int[] weights, int m){
+        // Ids of the forest edges among the first m edges, in increasing weight
+        if (m < 0 || m > sources.length || m > targets.length || m > weights.length){
+            throw new IllegalArgumentException("Invalid number of edges: " + m);
+        }
+        MinimumSpanningForest engine = new MinimumSpanningForest(num_nodes, sources, targets, weights, m);
+        engine.sets = new UnionFind(num_nodes);
+        engine.solve(0, m);
+        return Arrays.copyOf(engine.forest, engine.forest_size);
+    }
+
+    public static int[] boruvka(int num_nodes, int[] sources, int[] targets, int[] weights, int m){
+        // Ids of the forest edges among the first m edges, in increasing weight
+        if (m < 0 || m > sources.length || m > targets.length || m > weights.length){
+            throw new IllegalArgumentException("Invalid number of edges: " + m);
+        }
+        MinimumSpanningForest engine = new MinimumSpanningForest(num_nodes, sources, targets, weights, m);
+        engine.boruvkaRounds(m);
+        // Same order as Filter-Kruskal: by (weight, id)
+        long[] chosen = new long[engine.forest_size];
+        for (int i = 0; i < chosen.length; i++){
+            int e = engine.forest[i];
+            chosen[i] = ((long) weights[e] << 32) | e;
+        }
+        ParallelRadixSort.sort(chosen);
+        int[] forest = new int[chosen.length];
+        for (int i = 0; i < chosen.length; i++){
+            forest[i] = (int) chosen[i];
+        }
+        return forest;
+    }
+
+    public static CSRGraph filterKruskal(CSRGraph graph){
+        return forestOf(graph, false);
+    }
+
+    public static CSRGraph boruvka(CSRGraph graph){
+        return forestOf(graph, true);
+    }
+
+    private static CSRGraph forestOf(CSRGraph graph, boolean boruvka){
+        int n = graph.numNodes();
+        int m = graph.numEdges();
+        int[] sources = graph.edgeSources();
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        for (int e = 0; e < m; e++){
+            targets[e] = graph.edgeTarget(e);
+            weights[e] = graph.edgeWeight(e);
+        }
+        int[] forest = boruvka ? boruvka(n, sources, targets, weights, m) : filterKruskal(n, sources, targets, weights, m);
+        return toGraph(n, sources, targets, weights, forest);
+    }
+
+    static CSRGraph toGraph(int num_nodes, int[] sources, int[] targets, int[] weights, int[] edges){
+        // Forest as a CSRGraph, each edge in the direction it was given
+        int[] tree_sources = new int[edges.length];
+        int[] tree_targets = new int[edges.length];
+        int[] tree_weights = new int[edges.length];
+        for (int i = 0; i < edges.length; i++){
+            tree_sources[i] = sources[edges[i]];
+            tree_targets[i] = targets[edges[i]];
+            tree_weights[i] = weights[edges[i]];
+        }
+        return new CSRGraph(num_nodes, tree_sources, tree_targets, tree_weights, edges.length);
+    }
+
+    private void solve(int from, int to){
+        if (forest_size == forest.length){
+            // Spanning tree complete: every remaining edge closes a cycle
+            return;
+        }
+        if (to - from <= Math.max(num_nodes, BASE_THRESHOLD)){
+            kruskal(from, to);
+            return;
+        }
+        long pivot = pivotWeight(from, to);
+        int split = partition(from, to, key -> (key >> 32) <= pivot);
+        if (split == to){
+            // Pivot is the largest weight: put it on the heavy side instead
+            split = partition(from, to, key -> (key >> 32) < pivot);
+        }
+        if (split == from || split == to){
+            // All weights equal: no split possible
+            kruskal(from, to);
+            return;
+        }
+        solve(from, split);
+        int kept = partition(split, to, key -> {
+            int e = (int) key;
+            return sets.root(sources[e]) != sets.root(targets[e]);
+        });
+        solve(split, kept);
+    }
+
+    private void kruskal(int from, int to){
+        ParallelRadixSort.sort(keys, from, to, buffer);
+        for (int i = from; i < to && forest_size < forest.length; i++){
+            int e = (int) keys[i];
+            if (sets.union(sources[e], targets[e])){
+                forest[forest_size++] = e;
+            }
+        }
+    }
+
+    //-----------------
+    // Boruvka
+
+    private void boruvkaRounds(int m){
+        ConcurrentUnionFind components = new ConcurrentUnionFind(num_nodes);
+        // lightest[c]: packed key of the lightest edge leaving component c (root)
+        AtomicLongArray lightest = new AtomicLongArray(num_nodes);
+        for (int v = 0; v < num_nodes; v++){
+            lightest.set(v, Long.MAX_VALUE);
+        }
+        AtomicInteger size = new AtomicInteger(0);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int node_chunk = Math.max(CHUNK, num_nodes / (4 * parallelism) + 1);
+        int node_chunks = (num_nodes + node_chunk - 1) / node_chunk;
+        // Root of every node, refreshed after each round: the edge passes
+        // read a plain array instead of walking the union-find
+        int[] roots = new int[num_nodes];
+        for (int v = 0; v < num_nodes; v++){
+            roots[v] = v;
+        }
+
+        int live = m;
+        while (true){
+            // 1. Lightest edge out of each component (keys[0, live)), counting
+            //    the edges that now lie inside a component
+            int edges = live;
+            int chunks = (edges + CHUNK - 1) / CHUNK;
+            int[] inside_counts = new int[chunks];
+            IntStream.range(0, chunks).parallel().forEach(c -> {
+                int end = Math.min(edges, (c + 1) * CHUNK);
+                int inside = 0;
+                for (int i = c * CHUNK; i < end; i++){
+                    long key = keys[i];
+                    int e = (int) key;
+                    int root_source = roots[sources[e]];
+                    int root_target = roots[targets[e]];
+                    if (root_source == root_target){
+                        inside++;
+                        continue;
+                    }
+                    atomicMin(lightest, root_source, key);
+                    atomicMin(lightest, root_target, key);
+                }
+                inside_counts[c] = inside;
+            });
+            int inside = 0;
+            for (int count: inside_counts){
+                inside += count;
+            }
+            if (inside == live){
+                break;
+            }
+
+            // 2. Merge along the chosen edges; an edge chosen by both its
+            //    components is only added by the union that succeeds
+            IntStream.range(0, node_chunks).parallel().forEach(c -> {
+                int end = Math.min(num_nodes, (c + 1) * node_chunk);
+                for (int v = c * node_chunk; v < end; v++){
+                    long key = lightest.get(v);
+                    if (key == Long.MAX_VALUE){
+                        continue;
+                    }
+                    lightest.set(v, Long.MAX_VALUE);
+                    int e = (int) key;
+                    if (components.union(sources[e], targets[e])){
+                        forest[size.getAndIncrement()] = e;
+                    }
+                }
+            });
+            forest_size = size.get();
+
+            IntStream.range(0, node_chunks).parallel().forEach(c -> {
+                int end = Math.min(num_nodes, (c + 1) * node_chunk);
+                for (int v = c * node_chunk; v < end; v++){
+                    roots[v] = components.find(v);
+                }
+            });
+
+            // 3. Drop the edges inside a component, once there are enough of them
+            //    to pay for the copy (they are skipped until then)
+            if (inside >= live / 4){
+                live = partition(0, live, key -> {
+                    int e = (int) key;
+                    return roots[sources[e]] != roots[targets[e]];
+                });
+            }
+        }
+    }
+
+    private static void atomicMin(AtomicLongArray values, int i, long value){
+        long current = values.get(i);
+        while (value < current && !values.compareAndSet(i, current, value)){
+            current = values.get(i);
+        }
+    }
+
+    private long pivotWeight(int from, int to){
+        // Median weight of a random sample
+        long[] sample = new long[PIVOT_SAMPLES];
+        for (int i = 0; i < PIVOT_SAMPLES; i++){
+            sample[i] = keys[from + random.nextInt(to - from)] >> 32;
+        }
+        Arrays.sort(sample);
+        return sample[PIVOT_SAMPLES / 2];
+    }
+
+    private int partition(int from, int to, LongPredicate goes_left){
+        // Stable parallel partition of keys[from, to): the keys passing `goes_left`
+        // first, the others after. Returns where the others start
+        // Each chunk counts its keys, a prefix sum gives where each chunk writes
+        // into the buffer, then the buffer is copied back
+        int chunks = (to - from + CHUNK - 1) / CHUNK;
+        int[] left_counts = new int[chunks];
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int end = Math.min(to, from + (c + 1) * CHUNK);
+            int count = 0;
+            for (int i = from + c * CHUNK; i < end; i++){
+                count += goes_left.test(keys[i]) ? 1 : 0;
+            }
+            left_counts[c] = count;
+        });
+        int[] left_starts = new int[chunks];
+        int[] right_starts = new int[chunks];
+        int split = from;
+        for (int c = 0; c < chunks; c++){
+            left_starts[c] = split;
+            split += left_counts[c];
+        }
+        int right = split;
+        for (int c = 0; c < chunks; c++){
+            right_starts[c] = right;
+            right += Math.min(CHUNK, to - from - c * CHUNK) - left_counts[c];
+        }
+        int split_point = split;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int end = Math.min(to, from + (c + 1) * CHUNK);
+            int left = left_starts[c];
+            int right_pos = right_starts[c];
+            for (int i = from + c * CHUNK; i < end; i++){
+                long key = keys[i];
+                // The predicate is evaluated again: the union-find doesn't change meanwhile
+                if (goes_left.test(key)){
+                    buffer[left++] = key;
+                } else {
+                    buffer[right_pos++] = key;
+                }
+            }
+        });
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int copy_chunk = Math.max(CHUNK, (to - from) / (4 * parallelism) + 1);
+        int copy_chunks = (to - from + copy_chunk - 1) / copy_chunk;
+        IntStream.range(0, copy_chunks).parallel().forEach(c -> {
+            int start = from + c * copy_chunk;
+            System.arraycopy(buffer, start, keys, start, Math.min(copy_chunk, to - start));
+        });
+        return split_point;
+    }
+
+    public static void main(String[] args){
+        // Random undirected graph: CSRGraph-free path (primitive arrays only)
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int m = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        Random random = new Random(42);
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        int[] weights = new int[m];
+        for (int e = 0; e < m; e++){
+            sources[e] = random.nextInt(n);
+            targets[e] = random.nextInt(n);
+            weights[e] = random.nextInt(1_000_000);
+        }
+        System.out.println("n = " + n + ", m = " + m + ", threads = " + ForkJoinPool.getCommonPoolParallelism());
+
+        for (int round = 0; round < 3; round++){
+            for (int engine = 0; engine < 2; engine++){
+                long start = System.nanoTime();
+                int[] forest = engine == 0 ? filterKruskal(n, sources, targets, weights, m)
+                    : boruvka(n, sources, targets, weights, m);
+                long time = System.nanoTime() - start;
+                long total = 0;
+                for (int e: forest){
+                    total += weights[e];
+                }
+                System.out.println((engine == 0 ? "Filter-Kruskal: " : "Boruvka:        ") + time / 1000000L
+                    + " ms, " + forest.length + " edges, total weight " + total);
+            }
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+// Level-synchronous parallel BFS on a CSRGraph, with direction optimization (Beamer et al.)
+// The frontier (nodes of the current level) and the visited set are bitsets,
+// and each level is expanded in parallel over chunks of nodes on the common ForkJoinPool
+// 1. Top-down step: every frontier node claims its unvisited out-neighbours
+//    (atomic bit set: exactly one parent wins each node)
+//    Cheap while the frontier is small
+// 2. Bottom-up step: every unvisited node looks for one in-neighbour in the
+//    frontier, and stops at the first one found
+//    Cheap when the frontier is large: most edges are never looked at
+// Switch to bottom-up when the frontier's edges outnumber the unvisited
+// nodes' edges / ALPHA, and back when the frontier shrinks below n / BETA
+
+// Time complexity: O(V + E) work, O(diameter) levels
+// Space: 2 bitsets + dists & parents arrays, plus the reversed graph for bottom-up
+
+public class ParallelBFS {
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    // Nodes per parallel task: a multiple of 64, so no 2 tasks share a bitset word
+    private static final int CHUNK_NODES = 64 * 64;
+
+    private final CSRGraph graph;
+    private final CSRGraph reverse;
+
+    public ParallelBFS(CSRGraph graph){
+        this(graph, graph.transpose());
+    }
+
+    public ParallelBFS(CSRGraph graph, CSRGraph reverse){
+        // reverse: in-neighbours of each node (graph.transpose(),
+        // or graph itself if it is undirected)
+        this.graph = graph;
+        this.reverse = reverse;
+    }
+
+    public int[] hopDistances(int source){
+        // Number of edges from source to every node (-1 if unreachable)
+        int[] parents = new int[graph.numNodes()];
+        return run(source, -1, parents);
+    }
+
+    public int BFS(int start, int search_elem, LinkedList<Integer> path){
+        // Same contract as Graph.BFS: number of edges to search_elem (-1 if not found),
+        // and the nodes on the way in `path`
+        if (start == search_elem){
+            path.add(start);
+            return 0;
+        }
+        if (search_elem < 0 || search_elem >= graph.numNodes()){
+            // Not a node: never found (CSRGraph.BFS searches the whole graph for it)
+            return -1;
+        }
+        int[] parents = new int[graph.numNodes()];
+        int[] dists = run(start, search_elem, parents);
+        if (dists[search_elem] == -1){
+            return -1;
+        }
+        CSRGraph.findPath(parents, path, start, search_elem);
+        return dists[search_elem];
+    }
+
+    private int[] run(int source, int target, int[] parents){
+        // BFS from source, stopping after the level that reaches `target` (-1: never)
+        int n = graph.numNodes();
+        int words = (n + 63) >>> 6;
+        int chunks = (n + CHUNK_NODES - 1) / CHUNK_NODES;
+
+        int[] dists = new int[n];
+        Arrays.fill(dists, -1);
+        Arrays.fill(parents, -1);
+        AtomicLongArray visited = new AtomicLongArray(words);
+        AtomicLongArray frontier = new AtomicLongArray(words);
+        AtomicLongArray next = new AtomicLongArray(words);
+        // Per-chunk counts of the next frontier: nodes & their out-edges
+        long[] chunk_nodes = new long[chunks];
+        long[] chunk_edges = new long[chunks];
+
+        dists[source] = 0;
+        setBit(visited, source);
+        setBit(frontier, source);
+        long frontier_nodes = 1;
+        long frontier_edges = graph.outDegree(source);
+        long unvisited_edges = graph.numEdges() - frontier_edges;
+        boolean bottom_up = false;
+
+        for (int level = 0; frontier_nodes > 0; level++){
+            if (target != -1 && dists[target] != -1){
+                break;
+            }
+            if (!bottom_up && frontier_edges > unvisited_edges / ALPHA){
+                bottom_up = true;
+            } else if (bottom_up && frontier_nodes < n / BETA){
+                bottom_up = false;
+            }
+
+            int next_level = level + 1;
+            AtomicLongArray current = frontier;
+            AtomicLongArray found = next;
+            if (bottom_up){
+                IntStream.range(0, chunks).parallel().forEach(c ->
+                    bottomUpChunk(c, current, found, visited, dists, parents, next_level, chunk_nodes, chunk_edges));
+            } else {
+                IntStream.range(0, chunks).parallel().forEach(c ->
+                    topDownChunk(c, current, found, visited, dists, parents, next_level, chunk_nodes, chunk_edges));
+            }
+
+            frontier_nodes = 0;
+            frontier_edges = 0;
+            for (int c = 0; c < chunks; c++){
+                frontier_nodes += chunk_nodes[c];
+                frontier_edges += chunk_edges[c];
+            }
+            unvisited_edges -= frontier_edges;
+
+            // The next frontier becomes the current one; reuse the old bitset
+            for (int w = 0; w < words; w++){
+                frontier.set(w, 0);
+            }
+            next = frontier;
+            frontier = found;
+        }
+        return dists;
+    }
+
+    private void topDownChunk(int chunk, AtomicLongArray frontier, AtomicLongArray next, AtomicLongArray visited,
+                              int[] dists, int[] parents, int level, long[] chunk_nodes, long[] chunk_edges){
+        // Expand the frontier nodes of this chunk. Claimed nodes can belong to
+        // any chunk, so the counts are for the nodes claimed by this task
+        long nodes = 0;
+        long edges = 0;
+        int first_word = chunk * (CHUNK_NODES / 64);
+        int last_word = Math.min(frontier.length(), first_word + CHUNK_NODES / 64);
+        for (int w = first_word; w < last_word; w++){
+            long bits = frontier.get(w);
+            while (bits != 0){
+                int node = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++){
+                    int neighbour = graph.edgeTarget(e);
+                    if (testBit(visited, neighbour) || !trySetBit(visited, neighbour)){
+                        continue;
+                    }
+                    // Won the claim: this task is the only writer for neighbour
+                    dists[neighbour] = level;
+                    parents[neighbour] = node;
+                    setBit(next, neighbour);
+                    nodes++;
+                    edges += graph.outDegree(neighbour);
+                }
+            }
+        }
+        chunk_nodes[chunk] = nodes;
+        chunk_edges[chunk] = edges;
+    }
+
+    private void bottomUpChunk(int chunk, AtomicLongArray frontier, AtomicLongArray next, AtomicLongArray visited,
+                               int[] dists, int[] parents, int level, long[] chunk_nodes, long[] chunk_edges){
+        // Every unvisited node of this chunk looks for a parent in the frontier
+        // Only this task writes the bitset words of its chunk
+        long nodes = 0;
+        long edges = 0;
+        int first = chunk * CHUNK_NODES;
+        int last = Math.min(graph.numNodes(), first + CHUNK_NODES);
+        for (int node = first; node < last; node++){
+            if (testBit(visited, node)){
+                continue;
+            }
+            for (int e = reverse.edgeStart(node); e < reverse.edgeEnd(node); e++){
+                int in_neighbour = reverse.edgeTarget(e);
+                if (testBit(frontier, in_neighbour)){
+                    dists[node] = level;
+                    parents[node] = in_neighbour;
+                    setBit(visited, node);
+                    setBit(next, node);
+                    nodes++;
+                    edges += graph.outDegree(node);
+                    break;
+                }
+            }
+        }
+        chunk_nodes[chunk] = nodes;
+        chunk_edges[chunk] = edges;
+    }
+
+    //-----------------
+    // Bitset helpers over AtomicLongArray
+
+    private static boolean testBit(AtomicLongArray bits, int i){
+        return (bits.get(i >>> 6) & (1L << i)) != 0;
+    }
+
+    private static void setBit(AtomicLongArray bits, int i){
+        bits.getAndAccumulate(i >>> 6, 1L << i, (a, b) -> a | b);
+    }
+
+    private static boolean trySetBit(AtomicLongArray bits, int i){
+        // Set bit i, return false if it was already set (by another thread)
+        int word = i >>> 6;
+        long mask = 1L << i;
+        while (true){
+            long old = bits.get(word);
+            if ((old & mask) != 0){
+                return false;
+            }
+            if (bits.compareAndSet(word, old, old | mask)){
+                return true;
+            }
+        }
+    }
+
+    public static void main(String[] args){
+        // Low-diameter random graph (undirected, avg. degree 2 * degree):
+        // compare against the sequential CSRGraph.BFS
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int degree = 8;
+        Random random = new Random(42);
+        int[][] edges = new int[2 * n * degree][];
+        for (int i = 0; i < n * degree; i++){
+            int u = i / degree;
+            int v = random.nextInt(n);
+            edges[2 * i] = new int[]{u, v, 1};
+            edges[2 * i + 1] = new int[]{v, u, 1};
+        }
+        CSRGraph graph = new CSRGraph(edges, n);
+        ParallelBFS bfs = new ParallelBFS(graph, graph);
+
+        for (int round = 0; round < 3; round++){
+            long start = System.nanoTime();
+            // -1 is never found: the whole reachable graph is visited
+            graph.BFS(0, -1, new LinkedList<Integer>());
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int[] dists = bfs.hopDistances(0);
+            long parallel = System.nanoTime() - start;
+
+            int max_hops = 0;
+            for (int d: dists){
+                max_hops = Math.max(max_hops, d);
+            }
+            System.out.println("CSRGraph.BFS: " + sequential / 1000000L + " ms, ParallelBFS: "
+                + parallel / 1000000L + " ms, speedup: " + String.format("%.2f", (double) sequential / parallel)
+                + " (max hops " + max_hops + ")");
+        }
+
+        LinkedList<Integer> path = new LinkedList<Integer>();
+        System.out.println("Hops 0 -> " + (n - 1) + ": " + bfs.BFS(0, n - 1, path) + ", path: " + path);
+    }
+}
@@ -0,0 +1,164 @@
+package algorithms.graph_theory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+// Level-synchronous parallel Kahn's algorithm on a CSRGraph
+// Level 0 = the nodes with indegree 0; level k + 1 = the nodes whose last remaining
+// in-edge comes from level k, i.e. level = longest path from a node of indegree 0
+// Every node of a level only depends on earlier levels: a level is one build wave,
+// its nodes can all run at the same time
+// Each level is expanded in parallel over chunks of its nodes on the common ForkJoinPool:
+// atomic decrement of the indegrees, the task that brings a node to 0 adds it
+// to the next level (exactly one does). Levels are sorted, so the result is deterministic
+
+// Time complexity: O(V + E) work (+ sorting the levels), O(levels) parallel steps
+
+public class ParallelKahn {
+    // Smallest number of level nodes per parallel task
+    private static final int MIN_CHUNK = 256;
+
+    public static int[][] levels(CSRGraph graph){
+        // Nodes of each level in increasing order, or null if there is a cycle
+        int n = graph.numNodes();
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        AtomicIntegerArray indegree = new AtomicIntegerArray(n);
+        int node_chunk = Math.max(MIN_CHUNK, n / (4 * parallelism));
+        IntStream.range(0, (n + node_chunk - 1) / node_chunk).parallel().forEach(c -> {
+            int end = Math.min(n, (c + 1) * node_chunk);
+            for (int u = c * node_chunk; u < end; u++){
+                for (int e = graph.edgeStart(u); e < graph.edgeEnd(u); e++){
+                    indegree.incrementAndGet(graph.edgeTarget(e));
+                }
+            }
+        });
+
+        ArrayList<int[]> levels = new ArrayList<int[]>();
+        int[] level = IntStream.range(0, n).parallel().filter(u -> indegree.get(u) == 0).toArray();
+        int placed = 0;
+        while (level.length > 0){
+            levels.add(level);
+            placed += level.length;
+
+            int[] current = level;
+            int chunk = Math.max(MIN_CHUNK, current.length / (4 * parallelism));
+            int num_chunks = (current.length + chunk - 1) / chunk;
+            int[][] next = new int[num_chunks][];
+            IntConsumer expand = c -> {
+                int end = Math.min(current.length, (c + 1) * chunk);
+                int[] out = new int[16];
+                int size = 0;
+                for (int i = c * chunk; i < end; i++){
+                    int node = current[i];
+                    for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++){
+                        int neighbour = graph.edgeTarget(e);
+                        if (indegree.decrementAndGet(neighbour) == 0){
+                            if (size == out.length){
+                                out = Arrays.copyOf(out, 2 * size);
+                            }
+                            out[size++] = neighbour;
+                        }
+                    }
+                }
+                next[c] = Arrays.copyOf(out, size);
+            };
+            if (num_chunks == 1){
+                // Narrow level (deep graph): no task to fork
+                expand.accept(0);
+            } else {
+                IntStream.range(0, num_chunks).parallel().forEach(expand);
+            }
+
+            int size = 0;
+            for (int[] out: next){
+                size += out.length;
+            }
+            level = new int[size];
+            size = 0;
+            for (int[] out: next){
+                System.arraycopy(out, 0, level, size, out.length);
+                size += out.length;
+            }
+            if (level.length > MIN_CHUNK){
+                Arrays.parallelSort(level);
+            } else {
+                Arrays.sort(level);
+            }
+        }
+
+        if (placed < n){
+            // The nodes on a cycle (or behind one) never reach indegree 0
+            return null;
+        }
+        return levels.toArray(new int[levels.size()][]);
+    }
+
+    public static int[] order(CSRGraph graph){
+        // Levels one after the other: a topological order, or null if there is a cycle
+        int[][] levels = levels(graph);
+        if (levels == null){
+            return null;
+        }
+        int[] order = new int[graph.numNodes()];
+        int size = 0;
+        for (int[] level: levels){
+            System.arraycopy(level, 0, order, size, level.length);
+            size += level.length;
+        }
+        return order;
+    }
+
+    public static void main(String[] args){
+        // Build-dependency style DAG: each target depends on a few targets with a smaller id
+        // (relabelled at random, so the ids say nothing about the order)
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int dependencies = 4;
+        Random random = new Random(42);
+        int[] labels = new int[n];
+        for (int i = 0; i < n; i++){
+            labels[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int swap = labels[i];
+            labels[i] = labels[j];
+            labels[j] = swap;
+        }
+        int[][] edges = new int[(n - 1) * dependencies][];
+        int m = 0;
+        for (int i = 1; i < n; i++){
+            for (int d = 0; d < dependencies; d++){
+                // Mostly recent targets: long dependency chains, many waves
+                int dependency = Math.max(0, i - 1 - random.nextInt(Math.min(i, 1000)));
+                edges[m++] = new int[]{labels[dependency], labels[i], 1};
+            }
+        }
+        CSRGraph graph = new CSRGraph(edges, n);
+
+        for (int round = 0; round < 3; round++){
+            long start = System.nanoTime();
+            int size = graph.KahnSort().size();
+            long sequential = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int[][] levels = levels(graph);
+            long parallel = System.nanoTime() - start;
+
+            int widest = 0;
+            for (int[] level: levels){
+                widest = Math.max(widest, level.length);
+            }
+            System.out.println("KahnSort: " + size + " nodes in " + sequential / 1000000L + " ms, levels: "
+                + levels.length + " waves (widest " + widest + ") in " + parallel / 1000000L + " ms");
+        }
+
+        // Close a cycle
+        edges = Arrays.copyOf(edges, m + 1);
+        edges[m] = new int[]{labels[n - 1], labels[0], 1};
+        System.out.println("With a cycle: " + levels(new CSRGraph(edges, n)));
+    }
+}
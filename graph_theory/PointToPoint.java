@@ -0,0 +1,251 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+
+// Point-to-point shortest path queries on a CSRGraph, for many queries on the same graph
+// 1. Bidirectional Djikstra: search forward from the source & backward from the target
+//    (over the reversed graph) at the same time, stop when the 2 balls meet:
+//    stop once minKey(forward) + minKey(backward) >= best path found so far
+// 2. A*: Djikstra ordered by dist + heuristic estimate of the distance left,
+//    so the search is pulled towards the target (e.g. Landmarks: ALT lower bounds)
+//    The heuristic must be admissible (never over-estimate)
+
+// Per-query state is reused: every array slot is stamped with the query's epoch,
+// a slot with an older stamp counts as "not visited", so a query costs nothing to reset
+// Not thread-safe: use one PointToPoint per thread (the graphs can be shared)
+
+// POSITIVE weights only, distances are long (ShortestPaths.INFINITY if unreachable)
+
+public class PointToPoint {
+    // Lower bound of the distance from node to target; must never over-estimate
+    // May return ShortestPaths.INFINITY if target is known to be unreachable from node
+    public interface Heuristic {
+        long estimate(int node, int target);
+    }
+
+    private static final Heuristic NONE = (node, target) -> 0;
+
+    private final CSRGraph graph;
+    private final CSRGraph reverse;
+
+    // Forward state (also used by A*) & backward state, valid where stamp == epoch
+    private final long[] forward_dists;
+    private final int[] forward_parents;
+    private final int[] forward_stamps;
+    private final IndexedMinHeap forward_heap;
+    private final long[] backward_dists;
+    private final int[] backward_parents;
+    private final int[] backward_stamps;
+    private final IndexedMinHeap backward_heap;
+    private int epoch = 0;
+
+    // Number of nodes taken out of the heaps by the last query
+    private int settled = 0;
+
+    public PointToPoint(CSRGraph graph){
+        this(graph, graph.transpose());
+    }
+
+    public PointToPoint(CSRGraph graph, CSRGraph reverse){
+        // reverse: graph.transpose() (or graph itself if it is undirected)
+        int n = graph.numNodes();
+        this.graph = graph;
+        this.reverse = reverse;
+        this.forward_dists = new long[n];
+        this.forward_parents = new int[n];
+        this.forward_stamps = new int[n];
+        this.forward_heap = new IndexedMinHeap(n);
+        this.backward_dists = new long[n];
+        this.backward_parents = new int[n];
+        this.backward_stamps = new int[n];
+        this.backward_heap = new IndexedMinHeap(n);
+    }
+
+    public int settled(){
+        return settled;
+    }
+
+    //-----------------
+    // Queries: return the distance source -> target (ShortestPaths.INFINITY if unreachable),
+    // and fill `path` with the nodes on the way
+
+    public long dijkstra(int source, int target, LinkedList<Integer> path){
+        // Plain one-directional search, the baseline
+        return aStar(source, target, NONE, path);
+    }
+
+    public long aStar(int source, int target, Heuristic heuristic, LinkedList<Integer> path){
+        newQuery();
+        visit(forward_stamps, forward_dists, forward_parents, source, 0, -1);
+        forward_heap.insert(source, heuristic.estimate(source, target));
+
+        long result = ShortestPaths.INFINITY;
+        while (!forward_heap.isEmpty()){
+            int node = forward_heap.pollMin();
+            settled++;
+            if (node == target){
+                result = forward_dists[target];
+                break;
+            }
+            long cost = forward_dists[node];
+            for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++){
+                int neighbour = graph.edgeTarget(e);
+                long update_cost = cost + checkWeight(graph, e);
+                if (forward_stamps[neighbour] == epoch && update_cost >= forward_dists[neighbour]){
+                    continue;
+                }
+                long estimate = heuristic.estimate(neighbour, target);
+                if (estimate == ShortestPaths.INFINITY){
+                    // target can't be reached from there
+                    continue;
+                }
+                visit(forward_stamps, forward_dists, forward_parents, neighbour, update_cost, node);
+                // A settled node can come back if the heuristic is not consistent
+                forward_heap.insertOrDecrease(neighbour, update_cost + estimate);
+            }
+        }
+        if (result != ShortestPaths.INFINITY){
+            CSRGraph.findPath(forward_parents, path, source, target);
+        }
+        forward_heap.clear();
+        return result;
+    }
+
+    public long bidirectional(int source, int target, LinkedList<Integer> path){
+        newQuery();
+        visit(forward_stamps, forward_dists, forward_parents, source, 0, -1);
+        forward_heap.insert(source, 0);
+        visit(backward_stamps, backward_dists, backward_parents, target, 0, -1);
+        backward_heap.insert(target, 0);
+
+        // Best path found so far goes through `meeting`
+        long best = source == target ? 0 : ShortestPaths.INFINITY;
+        int meeting = source == target ? source : -1;
+        while (!forward_heap.isEmpty() && !backward_heap.isEmpty()){
+            if (forward_heap.minKey() + backward_heap.minKey() >= best){
+                break;
+            }
+            // Grow the smaller ball
+            boolean forward = forward_heap.minKey() <= backward_heap.minKey();
+            CSRGraph side = forward ? graph : reverse;
+            IndexedMinHeap heap = forward ? forward_heap : backward_heap;
+            long[] dists = forward ? forward_dists : backward_dists;
+            int[] parents = forward ? forward_parents : backward_parents;
+            int[] stamps = forward ? forward_stamps : backward_stamps;
+            long[] other_dists = forward ? backward_dists : forward_dists;
+            int[] other_stamps = forward ? backward_stamps : forward_stamps;
+
+            int node = heap.pollMin();
+            settled++;
+            long cost = dists[node];
+            for (int e = side.edgeStart(node); e < side.edgeEnd(node); e++){
+                int neighbour = side.edgeTarget(e);
+                long update_cost = cost + checkWeight(side, e);
+                if (stamps[neighbour] != epoch || update_cost < dists[neighbour]){
+                    visit(stamps, dists, parents, neighbour, update_cost, node);
+                    heap.insertOrDecrease(neighbour, update_cost);
+                }
+                if (other_stamps[neighbour] == epoch && update_cost + other_dists[neighbour] < best){
+                    best = update_cost + other_dists[neighbour];
+                    meeting = neighbour;
+                }
+            }
+        }
+        if (best != ShortestPaths.INFINITY){
+            // source -> meeting from the forward parents, meeting -> target from the backward ones
+            CSRGraph.findPath(forward_parents, path, source, meeting);
+            for (int node = meeting; node != target; ){
+                node = backward_parents[node];
+                path.addLast(node);
+            }
+        }
+        forward_heap.clear();
+        backward_heap.clear();
+        return best;
+    }
+
+    //-----------------
+    // Helpers
+
+    private void newQuery(){
+        settled = 0;
+        epoch++;
+        if (epoch == Integer.MAX_VALUE){
+            // Once every 2^31 queries: old stamps could collide, so wipe them
+            Arrays.fill(forward_stamps, 0);
+            Arrays.fill(backward_stamps, 0);
+            epoch = 1;
+        }
+    }
+
+    private void visit(int[] stamps, long[] dists, int[] parents, int node, long dist, int parent){
+        stamps[node] = epoch;
+        dists[node] = dist;
+        parents[node] = parent;
+    }
+
+    private static int checkWeight(CSRGraph graph, int edge){
+        int weight = graph.edgeWeight(edge);
+        if (weight < 0){
+            throw new IllegalArgumentException("Negative weight on edge " + edge + ": use BellmanFord");
+        }
+        return weight;
+    }
+
+    public static void main(String[] args){
+        // Road-like network: side x side grid, random weights both ways
+        int side = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int n = side * side;
+        Random random = new Random(42);
+        int[][] edges = new int[4 * n][];
+        int m = 0;
+        for (int node = 0; node < n; node++){
+            if (node % side != side - 1){
+                int weight = 1 + random.nextInt(100);
+                edges[m++] = new int[]{node, node + 1, weight};
+                edges[m++] = new int[]{node + 1, node, weight};
+            }
+            if (node + side < n){
+                int weight = 1 + random.nextInt(100);
+                edges[m++] = new int[]{node, node + side, weight};
+                edges[m++] = new int[]{node + side, node, weight};
+            }
+        }
+        CSRGraph graph = new CSRGraph(Arrays.copyOf(edges, m), n);
+
+        long start = System.nanoTime();
+        Landmarks landmarks = new Landmarks(graph, 16);
+        System.out.println("16 landmarks: " + (System.nanoTime() - start) / 1000000L + " ms");
+
+        PointToPoint queries = new PointToPoint(graph, graph);
+        int num_queries = 200;
+        int[] sources = new int[num_queries];
+        int[] targets = new int[num_queries];
+        for (int i = 0; i < num_queries; i++){
+            sources[i] = random.nextInt(n);
+            targets[i] = random.nextInt(n);
+        }
+
+        String[] names = {"dijkstra", "bidirectional", "A* (ALT)"};
+        for (int engine = 0; engine < names.length; engine++){
+            long total_settled = 0;
+            long checksum = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < num_queries; i++){
+                LinkedList<Integer> path = new LinkedList<Integer>();
+                if (engine == 0){
+                    checksum += queries.dijkstra(sources[i], targets[i], path);
+                } else if (engine == 1){
+                    checksum += queries.bidirectional(sources[i], targets[i], path);
+                } else {
+                    checksum += queries.aStar(sources[i], targets[i], landmarks, path);
+                }
+                total_settled += queries.settled();
+            }
+            long time = System.nanoTime() - start;
+            System.out.println(names[engine] + ": " + time / 1000L / num_queries + " us/query, "
+                + total_settled / num_queries + " settled/query (checksum " + checksum + ")");
+        }
+    }
+}
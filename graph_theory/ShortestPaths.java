@@ -0,0 +1,153 @@
+package algorithms.graph_theory;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Random;
+
+// Single-source shortest paths on a CSRGraph
+// Result: the distance to every node (long, so long paths can't overflow)
+// and the parent of every node on its shortest path (to rebuild paths)
+
+// Djikstra with an indexed 4-ary min heap (IndexedMinHeap):
+// each node is in the heap at most once, relaxations lower its key in place
+// Time complexity: O((V + E) log(V)), POSITIVE weights only
+// For many cores: deltaStepping, the parallel engine with the same result
+// Negative weights: bellmanFord, which also reports negative cycles
+// Nothing is allocated per edge: the heap & result arrays are sized once
+
+public class ShortestPaths {
+    // Distance of the nodes that can't be reached
+    public static final long INFINITY = Long.MAX_VALUE;
+
+    public final int source;
+    // dists[v]: cost of the shortest path source -> v (INFINITY if unreachable)
+    public final long[] dists;
+    // parents[v]: node before v on that path (-1 for the source & unreachable nodes)
+    public final int[] parents;
+    // Negative cycle reachable from the source (bellmanFord only), null if none:
+    // edges negative_cycle[i] -> negative_cycle[i + 1], and the last one -> the first one
+    // When there is one, dists & parents are NOT shortest paths (there are none)
+    public final int[] negative_cycle;
+
+    ShortestPaths(int source, long[] dists, int[] parents){
+        this(source, dists, parents, null);
+    }
+
+    ShortestPaths(int source, long[] dists, int[] parents, int[] negative_cycle){
+        this.source = source;
+        this.dists = dists;
+        this.parents = parents;
+        this.negative_cycle = negative_cycle;
+    }
+
+    public boolean reachable(int node){
+        return dists[node] != INFINITY;
+    }
+
+    public boolean path(int node, LinkedList<Integer> path){
+        // Fill `path` with the nodes source -> node, return false if unreachable
+        if (!reachable(node)){
+            return false;
+        }
+        path.addFirst(node);
+        while (node != source){
+            node = parents[node];
+            path.addFirst(node);
+        }
+        return true;
+    }
+
+    public static ShortestPaths dijkstra(CSRGraph graph, int source){
+        return dijkstra(graph, source, -1);
+    }
+
+    public static ShortestPaths dijkstra(CSRGraph graph, int source, int target){
+        // Stop as soon as `target` is settled (-1: run to completion)
+        // When stopped early, only the nodes settled so far have final distances
+        int n = graph.numNodes();
+        long[] dists = new long[n];
+        int[] parents = new int[n];
+        Arrays.fill(dists, INFINITY);
+        Arrays.fill(parents, -1);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        dists[source] = 0;
+        heap.insert(source, 0);
+        while (!heap.isEmpty()){
+            int node = heap.pollMin();
+            if (node == target){
+                break;
+            }
+            long cost = dists[node];
+            for (int e = graph.edgeStart(node); e < graph.edgeEnd(node); e++){
+                int weight = graph.edgeWeight(e);
+                if (weight < 0){
+                    throw new IllegalArgumentException("Negative weight on edge " + e + ": use BellmanFord");
+                }
+                int neighbour = graph.edgeTarget(e);
+                long update_cost = cost + weight;
+                // Settled nodes can't improve (non-negative weights),
+                // so they are never put back in the heap
+                if (update_cost < dists[neighbour]){
+                    dists[neighbour] = update_cost;
+                    parents[neighbour] = node;
+                    heap.insertOrDecrease(neighbour, update_cost);
+                }
+            }
+        }
+        return new ShortestPaths(source, dists, parents);
+    }
+
+    public static ShortestPaths deltaStepping(CSRGraph graph, int source){
+        // Parallel engine, same distances as dijkstra (see DeltaStepping)
+        return DeltaStepping.shortestPaths(graph, source);
+    }
+
+    public static ShortestPaths deltaStepping(CSRGraph graph, int source, long delta){
+        return DeltaStepping.shortestPaths(graph, source, delta);
+    }
+
+    public static ShortestPaths bellmanFord(CSRGraph graph, int source){
+        // NEGATIVE weights allowed: parallel worklist Bellman-Ford (see ParallelBellmanFord)
+        return ParallelBellmanFord.shortestPaths(graph, source);
+    }
+
+    public static void main(String[] args){
+        // Random graph: GraphHT.Djikstra vs the CSR engine, full single-source run
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int degree = 4;
+        Random random = new Random(42);
+        int[][] edges = new int[n * degree][];
+        for (int i = 0; i < edges.length; i++){
+            edges[i] = new int[]{i / degree, random.nextInt(n), 1 + random.nextInt(100)};
+        }
+
+        long start = System.nanoTime();
+        GraphHT hash_graph = new GraphHT(edges, n);
+        long end = System.nanoTime();
+        System.out.println("GraphHT build: " + (end - start) / 1000000L + " ms");
+
+        start = System.nanoTime();
+        CSRGraph csr_graph = new CSRGraph(edges, n);
+        end = System.nanoTime();
+        System.out.println("CSRGraph build: " + (end - start) / 1000000L + " ms\n");
+
+        // search_elem = -1: never found, so both settle every reachable node
+        for (int round = 0; round < 3; round++){
+            start = System.nanoTime();
+            hash_graph.Djikstra(0, -1, new LinkedList<Integer>());
+            long hash_time = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            ShortestPaths paths = dijkstra(csr_graph, 0);
+            long csr_time = System.nanoTime() - start;
+
+            int reached = 0;
+            for (int v = 0; v < n; v++){
+                reached += paths.reachable(v) ? 1 : 0;
+            }
+            System.out.println("GraphHT.Djikstra: " + hash_time / 1000000L + " ms, ShortestPaths.dijkstra: "
+                + csr_time / 1000000L + " ms, speedup: " + String.format("%.1f", (double) hash_time / csr_time)
+                + " (" + reached + " nodes reached)");
+        }
+    }
+}
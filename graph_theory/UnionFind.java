@@ -0,0 +1,75 @@
+package algorithms.graph_theory;
+
+// Union-find (disjoint sets) over the nodes 0 to n - 1
+// - find: root of the node's set, with path compression
+//   (every node on the way is re-linked straight to the root)
+// - union: the root of lower rank goes under the other (union by rank),
+//   so trees stay O(log(n)) deep even before compression
+
+// Time complexity: O(alpha(n)) amortized per operation (inverse Ackermann, < 5 in practice)
+// Space: 1 int + 1 byte per node
+
+public class UnionFind {
+    private final int[] parents;
+    private final byte[] ranks;
+    private int count;
+
+    public UnionFind(int n){
+        this.parents = new int[n];
+        this.ranks = new byte[n];
+        this.count = n;
+        for (int i = 0; i < n; i++){
+            parents[i] = i;
+        }
+    }
+
+    public int count(){
+        // Number of disjoint sets
+        return count;
+    }
+
+    public int find(int node){
+        int root = node;
+        while (parents[root] != root){
+            root = parents[root];
+        }
+        // Compress: second pass re-links the whole path to the root
+        while (parents[node] != root){
+            int next = parents[node];
+            parents[node] = root;
+            node = next;
+        }
+        return root;
+    }
+
+    public int root(int node){
+        // Same as find, without writing (safe to call from many threads between unions)
+        while (parents[node] != node){
+            node = parents[node];
+        }
+        return node;
+    }
+
+    public boolean connected(int a, int b){
+        return find(a) == find(b);
+    }
+
+    public boolean union(int a, int b){
+        // Merge the sets of a and b, false if they already were the same set
+        int root_a = find(a);
+        int root_b = find(b);
+        if (root_a == root_b){
+            return false;
+        }
+        if (ranks[root_a] < ranks[root_b]){
+            parents[root_a] = root_b;
+        } else if (ranks[root_a] > ranks[root_b]){
+            parents[root_b] = root_a;
+        } else {
+            parents[root_b] = root_a;
+            ranks[root_a]++;
+        }
+        count--;
+        return true;
+    }
+}
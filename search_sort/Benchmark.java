@@ -0,0 +1,282 @@
+package algorithms.search_sort;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.lang.System;
+
+// Benchmark suite for the sorts & searches in this package
+// Runs every benchmark on every (distribution, size) pair:
+// 1. Warm up until the JIT has settled (time budget, at least 1 run)
+// 2. Measure several runs, report the median
+// Output is CSV (one line per result) so runs of different versions can be diffed:
+//   benchmark,distribution,size,ns_per_op,melems_per_s,alloc_bytes_per_op
+
+// Allocation is measured per op on the calling thread only, so the work of
+// ForkJoin workers (ParallelRadixSort) is not counted
+
+// Usage: java -Xmx4g algorithms.search_sort.Benchmark
+//   [--sizes 1000,1000000] [--distributions uniform,sorted]
+//   [--benchmarks quickSort,binarySearch] [--iterations 5] [--seed 42]
+
+public class Benchmark {
+    private static final long WARMUP_NANOS = 500_000_000L;
+    // Enough queries per search op to be measurable, without making
+    // linear search at large sizes take forever
+    private static final long SEARCH_WORK = 10_000_000L;
+
+    // Keeps results alive so the JIT can't drop the work
+    static volatile long sink;
+
+    // A sort works in place on `work`, which holds a fresh copy of the input
+    interface SortBenchmark {
+        void run(int[] work);
+    }
+
+    // A search looks up each query in `sorted`, returns a checksum
+    interface SearchBenchmark {
+        long run(int[] sorted, int[] queries, int query_count);
+    }
+
+    static final Map<String, SortBenchmark> SORTS = new LinkedHashMap<String, SortBenchmark>();
+    static final Map<String, SearchBenchmark> SEARCHES = new LinkedHashMap<String, SearchBenchmark>();
+    static {
+        // Baseline first
+        SORTS.put("Arrays.sort", work -> Arrays.sort(work));
+        SORTS.put("quickSort", work -> Sort.quickSort(work));
+        SORTS.put("mergeSort", work -> Sort.mergeSort(work));
+        SORTS.put("countingSortInPlace", work -> Sort.countingSortInPlace(work));
+        SORTS.put("radixSort", work -> Sort.radixSort(work));
+        SORTS.put("ParallelRadixSort", work -> ParallelRadixSort.sort(work));
+
+        SEARCHES.put("Arrays.binarySearch", (sorted, queries, query_count) -> {
+            long sum = 0;
+            for (int q = 0; q < query_count; q++){
+                sum += Arrays.binarySearch(sorted, queries[q]);
+            }
+            return sum;
+        });
+        SEARCHES.put("binarySearch", (sorted, queries, query_count) -> {
+            long sum = 0;
+            for (int q = 0; q < query_count; q++){
+                sum += Search.binarySearch(sorted, 0, sorted.length - 1, queries[q]);
+            }
+            return sum;
+        });
+        SEARCHES.put("interpolationSearch", (sorted, queries, query_count) -> {
+            long sum = 0;
+            for (int q = 0; q < query_count; q++){
+                sum += Search.interpolationSearch(sorted, 0, sorted.length - 1, queries[q]);
+            }
+            return sum;
+        });
+        SEARCHES.put("exponentialSearch", (sorted, queries, query_count) -> {
+            // Hint: where the previous query was found (no locality in random queries)
+            long sum = 0;
+            int hint = sorted.length / 2;
+            for (int q = 0; q < query_count; q++){
+                int pos = Search.exponentialSearch(sorted, hint, queries[q]);
+                hint = pos >= 0 ? pos : hint;
+                sum += pos;
+            }
+            return sum;
+        });
+        SEARCHES.put("SortedIntIndex", new SearchBenchmark(){
+            // Built once per input array, outside of the timed runs after warm-up
+            int[] built_for;
+            SortedIntIndex index;
+
+            public long run(int[] sorted, int[] queries, int query_count){
+                if (built_for != sorted){
+                    index = new SortedIntIndex(sorted);
+                    built_for = sorted;
+                }
+                long sum = 0;
+                for (int q = 0; q < query_count; q++){
+                    sum += index.indexOf(queries[q]);
+                }
+                return sum;
+            }
+        });
+        SEARCHES.put("linearSearch", (sorted, queries, query_count) -> {
+            long sum = 0;
+            for (int q = 0; q < query_count; q++){
+                sum += Search.linearSearch(sorted, 0, sorted.length - 1, queries[q]);
+            }
+            return sum;
+        });
+    }
+
+    static final String[] DISTRIBUTIONS = {
+        "uniform", "sorted", "reverse", "few_unique", "sawtooth", "negative_heavy", "zipf"};
+
+    static int[] generate(String distribution, int n, Random random){
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++){
+            switch (distribution){
+                case "uniform": data[i] = random.nextInt(); break;
+                case "sorted": data[i] = i; break;
+                case "reverse": data[i] = n - i; break;
+                case "few_unique": data[i] = random.nextInt(16); break;
+                // Ascending ramps of 1000 values
+                case "sawtooth": data[i] = i % 1000; break;
+                // 90% negative values over the whole range
+                case "negative_heavy":
+                    data[i] = random.nextInt(10) == 0 ? random.nextInt(Integer.MAX_VALUE) : -1 - random.nextInt(Integer.MAX_VALUE);
+                    break;
+                // Heavy-tailed (Pareto, the continuous Zipf): mostly small 
+                // values with many repeats, and a few huge ones
+                case "zipf":
+                    data[i] = (int) Math.min(Integer.MAX_VALUE, Math.pow(1 - random.nextDouble(), -1 / 1.2));
+                    break;
+                default: throw new IllegalArgumentException("Unknown distribution: " + distribution);
+            }
+        }
+        return data;
+    }
+
+    // Result of one benchmark
+    static class Result {
+        long ns_per_op;
+        double elems_per_op;
+        long alloc_bytes_per_op;
+    }
+
+    static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    static long allocatedBytes(){
+        // Bytes allocated so far by the current thread (0 if not supported)
+        if (THREADS instanceof com.sun.management.ThreadMXBean){
+            return ((com.sun.management.ThreadMXBean) THREADS).getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    static Result measureSort(SortBenchmark benchmark, int[] input, int iterations){
+        int[] work = new int[input.length];
+
+        long warmup_end = System.nanoTime() + WARMUP_NANOS;
+        do {
+            System.arraycopy(input, 0, work, 0, input.length);
+            benchmark.run(work);
+        } while (System.nanoTime() < warmup_end);
+
+        long[] times = new long[iterations];
+        long allocated = 0;
+        for (int it = 0; it < iterations; it++){
+            System.arraycopy(input, 0, work, 0, input.length);
+            long alloc_start = allocatedBytes();
+            long start = System.nanoTime();
+            benchmark.run(work);
+            times[it] = System.nanoTime() - start;
+            allocated += allocatedBytes() - alloc_start;
+            sink += work[work.length / 2];
+        }
+
+        // Sanity check, outside of the timed part
+        for (int i = 1; i < work.length; i++){
+            if (work[i - 1] > work[i]){
+                throw new IllegalStateException("Not sorted at " + i);
+            }
+        }
+
+        Arrays.sort(times);
+        Result result = new Result();
+        result.ns_per_op = times[iterations / 2];
+        result.elems_per_op = input.length;
+        result.alloc_bytes_per_op = allocated / iterations;
+        return result;
+    }
+
+    static Result measureSearch(SearchBenchmark benchmark, int[] sorted, int[] queries, int iterations){
+        int query_count = (int) Math.max(1, Math.min(queries.length, SEARCH_WORK / sorted.length));
+
+        long warmup_end = System.nanoTime() + WARMUP_NANOS;
+        do {
+            sink += benchmark.run(sorted, queries, query_count);
+        } while (System.nanoTime() < warmup_end);
+
+        long[] times = new long[iterations];
+        long allocated = 0;
+        for (int it = 0; it < iterations; it++){
+            long alloc_start = allocatedBytes();
+            long start = System.nanoTime();
+            sink += benchmark.run(sorted, queries, query_count);
+            times[it] = System.nanoTime() - start;
+            allocated += allocatedBytes() - alloc_start;
+        }
+
+        // One op = one lookup
+        Arrays.sort(times);
+        Result result = new Result();
+        result.ns_per_op = times[iterations / 2] / query_count;
+        result.elems_per_op = 1;
+        result.alloc_bytes_per_op = allocated / iterations / query_count;
+        return result;
+    }
+
+    static void print(String benchmark, String distribution, int size, Result result){
+        double elems_per_s = result.elems_per_op * 1e9 / Math.max(1, result.ns_per_op);
+        System.out.println(benchmark + "," + distribution + "," + size + "," + result.ns_per_op
+            + "," + String.format("%.3f", elems_per_s / 1e6) + "," + result.alloc_bytes_per_op);
+    }
+
+    static List<String> parseList(String value){
+        return Arrays.asList(value.split(","));
+    }
+
+    public static void main(String[] args){
+        List<String> sizes = parseList("1000,10000,100000,1000000,10000000,100000000");
+        List<String> distributions = Arrays.asList(DISTRIBUTIONS);
+        List<String> benchmarks = new ArrayList<String>(SORTS.keySet());
+        benchmarks.addAll(SEARCHES.keySet());
+        int iterations = 5;
+        long seed = 42;
+
+        for (int i = 0; i + 1 < args.length; i += 2){
+            switch (args[i]){
+                case "--sizes": sizes = parseList(args[i + 1]); break;
+                case "--distributions": distributions = parseList(args[i + 1]); break;
+                case "--benchmarks": benchmarks = parseList(args[i + 1]); break;
+                case "--iterations": iterations = Integer.parseInt(args[i + 1]); break;
+                case "--seed": seed = Long.parseLong(args[i + 1]); break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        System.out.println("benchmark,distribution,size,ns_per_op,melems_per_s,alloc_bytes_per_op");
+        for (String size_text: sizes){
+            int size = Integer.parseInt(size_text);
+            // input + work copy + scratch buffers of the sorts
+            if (4L * Integer.BYTES * size > Runtime.getRuntime().maxMemory()){
+                System.err.println("Skipping size " + size + ": not enough heap (use -Xmx)");
+                continue;
+            }
+            for (String distribution: distributions){
+                int[] input = generate(distribution, size, new Random(seed));
+                int[] sorted = input.clone();
+                Arrays.sort(sorted);
+
+                // Half the queries hit, half are random (mostly misses)
+                Random random = new Random(seed + 1);
+                int[] queries = new int[1 << 16];
+                for (int q = 0; q < queries.length; q++){
+                    queries[q] = q % 2 == 0 ? sorted[random.nextInt(size)] : random.nextInt();
+                }
+
+                for (String benchmark: benchmarks){
+                    if (SORTS.containsKey(benchmark)){
+                        print(benchmark, distribution, size, measureSort(SORTS.get(benchmark), input, iterations));
+                    } else if (SEARCHES.containsKey(benchmark)){
+                        print(benchmark, distribution, size, measureSearch(SEARCHES.get(benchmark), sorted, queries, iterations));
+                    } else {
+                        throw new IllegalArgumentException("Unknown benchmark: " + benchmark);
+                    }
+                }
+            }
+        }
+    }
+}
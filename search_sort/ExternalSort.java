@@ -0,0 +1,349 @@
+package algorithms.search_sort;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.lang.System;
+
+// External merge sort for binary files of int/ long values that don't fit in the heap
+// 1. Run phase: memory-map the input one run at a time, sort the run
+//    in memory with the radix sorts, and spill it to a temp file
+// 2. Merge phase: k-way merge up to `fan_in` runs at a time through a
+//    primitive min-heap, repeating until a single run (the output) is left
+
+// Time complexity: O(n log(n)) comparisons in the merge,
+// I/O: 1 pass for the runs + ceil(log_{fan_in}(runs)) merge passes
+// Memory: O(run_elements) for the run phase, O(fan_in * buffer) for the merge
+
+public class ExternalSort {
+    // Bytes buffered per open file during the merge
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+
+    private final int run_elements;
+    private final int fan_in;
+    private final Path temp_dir;
+    private final ByteOrder order;
+
+    // I/O counters of the last sort, per phase
+    public static class Stats {
+        public int runs;
+        public int merge_passes;
+        public long run_bytes_read;
+        public long run_bytes_written;
+        public long merge_bytes_read;
+        public long merge_bytes_written;
+
+        @Override
+        public String toString(){
+            return "runs: " + runs + ", merge passes: " + merge_passes
+                + "\nrun phase:   read " + run_bytes_read + " B, written " + run_bytes_written + " B"
+                + "\nmerge phase: read " + merge_bytes_read + " B, written " + merge_bytes_written + " B";
+        }
+    }
+
+    public ExternalSort(int run_elements, int fan_in, Path temp_dir){
+        this(run_elements, fan_in, temp_dir, ByteOrder.BIG_ENDIAN);
+    }
+
+    public ExternalSort(int run_elements, int fan_in, Path temp_dir, ByteOrder order){
+        // run_elements: values sorted in memory per run (must fit a single mapping)
+        // fan_in: max number of runs merged at once (>= 2)
+        // temp_dir: where the runs are spilled
+        // order: byte order of the input/ output files
+        if (run_elements < 1 || run_elements > Integer.MAX_VALUE / Long.BYTES){
+            throw new IllegalArgumentException("Invalid run size: " + run_elements);
+        }
+        if (fan_in < 2){
+            throw new IllegalArgumentException("fan_in must be at least 2: " + fan_in);
+        }
+        this.run_elements = run_elements;
+        this.fan_in = fan_in;
+        this.temp_dir = temp_dir;
+        this.order = order;
+    }
+
+    public Stats sortInts(Path input, Path output) throws IOException {
+        return sort(input, output, Integer.BYTES);
+    }
+
+    public Stats sortLongs(Path input, Path output) throws IOException {
+        return sort(input, output, Long.BYTES);
+    }
+
+    private Stats sort(Path input, Path output, int width) throws IOException {
+        Stats stats = new Stats();
+        ArrayList<Path> runs = new ArrayList<Path>();
+        try {
+            createRuns(input, width, runs, stats);
+            stats.runs = runs.size();
+
+            // Merge `fan_in` runs at a time until one is left
+            while (runs.size() > fan_in){
+                ArrayList<Path> merged = new ArrayList<Path>();
+                for (int i = 0; i < runs.size(); i += fan_in){
+                    List<Path> group = runs.subList(i, Math.min(runs.size(), i + fan_in));
+                    Path run = Files.createTempFile(temp_dir, "run", ".bin");
+                    merged.add(run);
+                    merge(group, run, width, stats);
+                    deleteAll(group);
+                }
+                runs = merged;
+                stats.merge_passes++;
+            }
+            merge(runs, output, width, stats);
+            stats.merge_passes++;
+        } finally {
+            deleteAll(runs);
+        }
+        return stats;
+    }
+
+    private void createRuns(Path input, int width, ArrayList<Path> runs, Stats stats) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)){
+            long size = channel.size();
+            if (size % width != 0){
+                throw new IOException("File size " + size + " is not a multiple of " + width + " bytes: " + input);
+            }
+            long total = size / width;
+
+            // Scratch buffers reused by every full-size run
+            int[] ints = null;
+            int[] int_buffer = null;
+            int[] counts = null;
+            long[] longs = null;
+            long[] long_buffer = null;
+
+            for (long start = 0; start < total; start += run_elements){
+                int count = (int) Math.min(run_elements, total - start);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start * width, (long) count * width);
+                mapped.order(order);
+                stats.run_bytes_read += (long) count * width;
+
+                Path run = Files.createTempFile(temp_dir, "run", ".bin");
+                runs.add(run);
+                try (RunWriter writer = new RunWriter(run, width, order)){
+                    if (width == Integer.BYTES){
+                        if (ints == null || ints.length != count){
+                            ints = new int[count];
+                            int_buffer = new int[count];
+                            counts = new int[Sort.radixCountsLength(8)];
+                        }
+                        mapped.asIntBuffer().get(ints, 0, count);
+                        int[] sorted = Sort.radixSort(ints, int_buffer, counts, 8);
+                        for (int i = 0; i < count; i++){
+                            writer.write(sorted[i]);
+                        }
+                    } else {
+                        if (longs == null || longs.length < count){
+                            // Sized by the first run, the shorter last run sorts a prefix
+                            longs = new long[count];
+                            long_buffer = new long[count];
+                        }
+                        mapped.asLongBuffer().get(longs, 0, count);
+                        ParallelRadixSort.sort(longs, 0, count, long_buffer);
+                        for (int i = 0; i < count; i++){
+                            writer.write(longs[i]);
+                        }
+                    }
+                    stats.run_bytes_written += writer.bytes_written;
+                }
+            }
+        }
+    }
+
+    private void merge(List<Path> group, Path output, int width, Stats stats) throws IOException {
+        // k-way merge with a binary min-heap of (value, run index)
+        // kept in two parallel primitive arrays
+        int k = group.size();
+        RunReader[] readers = new RunReader[k];
+        long[] heap_values = new long[k];
+        int[] heap_runs = new int[k];
+        int heap_size = 0;
+
+        try (RunWriter writer = new RunWriter(output, width, order)){
+            for (int i = 0; i < k; i++){
+                readers[i] = new RunReader(group.get(i), width, order);
+                if (readers[i].hasNext()){
+                    heap_values[heap_size] = readers[i].next();
+                    heap_runs[heap_size] = i;
+                    heap_size++;
+                }
+            }
+            for (int i = heap_size / 2 - 1; i >= 0; i--){
+                siftDown(heap_values, heap_runs, i, heap_size);
+            }
+
+            while (heap_size > 0){
+                // Pop the minimum, then refill the root from the same run
+                int run = heap_runs[0];
+                writer.write(heap_values[0]);
+                if (readers[run].hasNext()){
+                    heap_values[0] = readers[run].next();
+                } else {
+                    heap_size--;
+                    heap_values[0] = heap_values[heap_size];
+                    heap_runs[0] = heap_runs[heap_size];
+                }
+                siftDown(heap_values, heap_runs, 0, heap_size);
+            }
+            stats.merge_bytes_written += writer.bytes_written;
+        } finally {
+            for (RunReader reader: readers){
+                if (reader != null){
+                    stats.merge_bytes_read += reader.bytes_read;
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void siftDown(long[] values, int[] runs, int i, int n){
+        long value = values[i];
+        int run = runs[i];
+        int child;
+        while ((child = 2 * i + 1) < n){
+            if (child + 1 < n && values[child + 1] < values[child]){
+                child++;
+            }
+            if (values[child] >= value){
+                break;
+            }
+            values[i] = values[child];
+            runs[i] = runs[child];
+            i = child;
+        }
+        values[i] = value;
+        runs[i] = run;
+    }
+
+    private static void deleteAll(List<Path> paths) throws IOException {
+        for (Path path: paths){
+            Files.deleteIfExists(path);
+        }
+    }
+
+    // Buffered sequential reader of int/ long values (ints are widened to long)
+    private static class RunReader implements AutoCloseable {
+        final FileChannel channel;
+        final ByteBuffer buffer;
+        final int width;
+        long bytes_read = 0;
+
+        RunReader(Path path, int width, ByteOrder order) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(order);
+            this.buffer.flip();
+            this.width = width;
+        }
+
+        boolean hasNext() throws IOException {
+            if (buffer.remaining() >= width){
+                return true;
+            }
+            buffer.compact();
+            while (buffer.position() < width && channel.read(buffer) > 0){
+                // Keep reading until a full value is buffered or EOF
+            }
+            buffer.flip();
+            return buffer.remaining() >= width;
+        }
+
+        long next(){
+            bytes_read += width;
+            return width == Integer.BYTES ? buffer.getInt() : buffer.getLong();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Buffered sequential writer of int/ long values
+    private static class RunWriter implements AutoCloseable {
+        final FileChannel channel;
+        final ByteBuffer buffer;
+        final int width;
+        long bytes_written = 0;
+
+        RunWriter(Path path, int width, ByteOrder order) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES).order(order);
+            this.width = width;
+        }
+
+        void write(long value) throws IOException {
+            if (buffer.remaining() < width){
+                flush();
+            }
+            if (width == Integer.BYTES){
+                buffer.putInt((int) value);
+            } else {
+                buffer.putLong(value);
+            }
+            bytes_written += width;
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // Sort a file of random longs with small runs to exercise multiple merge passes
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path temp_dir = Files.createTempDirectory("external_sort");
+        Path input = temp_dir.resolve("input.bin");
+        Path output = temp_dir.resolve("output.bin");
+
+        Random random = new Random(42);
+        try (RunWriter writer = new RunWriter(input, Long.BYTES, ByteOrder.BIG_ENDIAN)){
+            for (int i = 0; i < n; i++){
+                writer.write(random.nextLong());
+            }
+        }
+
+        ExternalSort sorter = new ExternalSort(n / 40 + 1, 8, temp_dir);
+        long start = System.nanoTime();
+        Stats stats = sorter.sortLongs(input, output);
+        long end = System.nanoTime();
+        System.out.println(stats);
+        System.out.println("Time: " + (end - start) / 1000000L + " ms");
+
+        // Check the output is sorted
+        boolean sorted = true;
+        long count = 0;
+        try (RunReader reader = new RunReader(output, Long.BYTES, ByteOrder.BIG_ENDIAN)){
+            long previous = Long.MIN_VALUE;
+            while (reader.hasNext()){
+                long value = reader.next();
+                sorted &= previous <= value;
+                previous = value;
+                count++;
+            }
+        }
+        System.out.println("Sorted: " + sorted + ", values: " + count);
+
+        Files.delete(input);
+        Files.delete(output);
+        Files.delete(temp_dir);
+    }
+}
@@ -0,0 +1,428 @@
+package algorithms.search_sort;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import java.lang.System;
+
+// Parallel radix sort for int[] and long[] on the common ForkJoinPool
+// 1. MSD step: split the input into chunks, each worker builds a histogram
+//    of the top (non-constant) 8-bit digit for its chunk
+// 2. Combine the per-chunk histograms with a prefix sum, so each chunk
+//    knows where to write each digit
+// 3. Scatter all chunks in parallel into the scratch buffer
+// 4. Each digit bucket is now independent: recurse on them in parallel,
+//    and switch to sequential LSD radix sort once a bucket is below `threshold`
+
+// Time complexity: O(n) work, Space complexity: O(n) for the scratch buffer
+
+public class ParallelRadixSort {
+    // Below this many elements, a range is sorted on a single thread
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    private static final int DIGIT_BITS = 8;
+    private static final int RADIX = 1 << DIGIT_BITS;
+    // Below this many elements, a range goes to Arrays.sort
+    private static final int SMALL_RANGE_THRESHOLD = 64;
+
+    // Helper task: run `body` for every index in [start, end), splitting
+    // the range in halves across the ForkJoinPool
+    private static class RangeTask extends RecursiveAction {
+        // ForkJoinTask is Serializable, tasks are never serialized
+        private static final long serialVersionUID = 1L;
+
+        final int start;
+        final int end;
+        final IntConsumer body;
+
+        RangeTask(int start, int end, IntConsumer body){
+            this.start = start;
+            this.end = end;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute(){
+            if (end - start == 1){
+                body.accept(start);
+                return;
+            }
+            int mid = (start + end) >>> 1;
+            invokeAll(new RangeTask(start, mid, body), new RangeTask(mid, end, body));
+        }
+    }
+
+    private static void parallelFor(int start, int end, IntConsumer body){
+        // Outside a pool, invoke() forks onto the common pool
+        if (end > start){
+            new RangeTask(start, end, body).invoke();
+        }
+    }
+
+    private static int numChunks(int n, int threshold){
+        // Enough chunks to balance the load, but each worth forking
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int max_chunks = Math.max(1, n / Math.max(threshold / 4, 1024));
+        return Math.max(1, Math.min(4 * parallelism, max_chunks));
+    }
+
+    //-----------------
+    // int[]
+
+    public static int[] sort(int[] arr){
+        return sort(arr, DEFAULT_THRESHOLD);
+    }
+
+    public static int[] sort(int[] arr, int threshold){
+        // Sorts `arr` in place and returns it for convenience
+        // threshold: ranges smaller than this are sorted sequentially
+        if (threshold < 1){
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        if (arr.length < threshold){
+            return Sort.radixSort(arr);
+        }
+        int[] buffer = new int[arr.length];
+        sortRange(arr, buffer, 0, arr.length, threshold);
+        return arr;
+    }
+
+    private static void sortRange(int[] arr, int[] buffer, int from, int to, int threshold){
+        // Sort arr[from, to) in place, using buffer[from, to) as scratch
+        int n = to - from;
+        if (n < threshold){
+            sequentialSort(arr, buffer, from, to);
+            return;
+        }
+
+        int chunks = numChunks(n, threshold);
+        int chunk_size = (n + chunks - 1) / chunks;
+
+        // Find the bits that differ between elements (XOR against the first)
+        int[] chunk_diff = new int[chunks];
+        int first = arr[from];
+        parallelFor(0, chunks, c -> {
+            int lo = from + c * chunk_size;
+            int hi = Math.min(to, lo + chunk_size);
+            int diff = 0;
+            for (int i = lo; i < hi; i++){
+                diff |= arr[i] ^ first;
+            }
+            chunk_diff[c] = diff;
+        });
+        int diff = 0;
+        for (int d: chunk_diff){
+            diff |= d;
+        }
+        if (diff == 0){
+            // All equal
+            return;
+        }
+
+        // MSD digit: the top 8 bits that are not constant
+        int shift = Math.max(0, 31 - Integer.numberOfLeadingZeros(diff) - DIGIT_BITS + 1);
+
+        // 1. Per-chunk histograms
+        int[][] counts = new int[chunks][RADIX];
+        parallelFor(0, chunks, c -> {
+            int lo = from + c * chunk_size;
+            int hi = Math.min(to, lo + chunk_size);
+            int[] count = counts[c];
+            for (int i = lo; i < hi; i++){
+                count[((arr[i] ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1)]++;
+            }
+        });
+
+        // 2. Prefix sum: digit-major, then chunk order (keeps it stable)
+        int[] bucket_start = new int[RADIX + 1];
+        int sum = from;
+        for (int d = 0; d < RADIX; d++){
+            bucket_start[d] = sum;
+            for (int c = 0; c < chunks; c++){
+                int count = counts[c][d];
+                counts[c][d] = sum;
+                sum += count;
+            }
+        }
+        bucket_start[RADIX] = sum;
+
+        // 3. Parallel scatter into the buffer
+        parallelFor(0, chunks, c -> {
+            int lo = from + c * chunk_size;
+            int hi = Math.min(to, lo + chunk_size);
+            int[] offset = counts[c];
+            for (int i = lo; i < hi; i++){
+                int elem = arr[i];
+                buffer[offset[((elem ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1)]++] = elem;
+            }
+        });
+
+        // 4. Sort each bucket independently (data now lives in buffer),
+        // then copy it back
+        if (shift == 0){
+            // Last digit: the buckets are already sorted
+            parallelFor(0, chunks, c -> {
+                int lo = from + c * chunk_size;
+                int hi = Math.min(to, lo + chunk_size);
+                System.arraycopy(buffer, lo, arr, lo, hi - lo);
+            });
+            return;
+        }
+        parallelFor(0, RADIX, d -> {
+            int lo = bucket_start[d];
+            int hi = bucket_start[d + 1];
+            if (hi - lo == 0){
+                return;
+            }
+            sortRange(buffer, arr, lo, hi, threshold);
+            System.arraycopy(buffer, lo, arr, lo, hi - lo);
+        });
+    }
+
+    private static void sequentialSort(int[] arr, int[] buffer, int from, int to){
+        // LSD radix sort of arr[from, to) on its non-constant bits only,
+        // ping-ponging with buffer[from, to). Result ends up in arr
+        int n = to - from;
+        if (n < SMALL_RANGE_THRESHOLD){
+            Arrays.sort(arr, from, to);
+            return;
+        }
+
+        int diff = 0;
+        int first = arr[from];
+        for (int i = from; i < to; i++){
+            diff |= arr[i] ^ first;
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(diff);
+        int passes = (bits + DIGIT_BITS - 1) / DIGIT_BITS;
+
+        int[] count = new int[RADIX];
+        int[] src = arr;
+        int[] dst = buffer;
+        for (int p = 0; p < passes; p++){
+            int shift = p * DIGIT_BITS;
+            Arrays.fill(count, 0);
+            for (int i = from; i < to; i++){
+                count[((src[i] ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1)]++;
+            }
+            int sum = from;
+            for (int d = 0; d < RADIX; d++){
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+            for (int i = from; i < to; i++){
+                int elem = src[i];
+                dst[count[((elem ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1)]++] = elem;
+            }
+            int[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr){
+            System.arraycopy(src, from, arr, from, n);
+        }
+    }
+
+    //-----------------
+    // long[]
+    // Same as int[], with 64-bit keys
+
+    public static long[] sort(long[] arr){
+        return sort(arr, DEFAULT_THRESHOLD);
+    }
+
+    public static long[] sort(long[] arr, int threshold){
+        // Sorts `arr` in place and returns it for convenience
+        // threshold: ranges smaller than this are sorted sequentially
+        if (threshold < 1){
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        }
+        long[] buffer = new long[arr.length];
+        sortRange(arr, buffer, 0, arr.length, threshold);
+        return arr;
+    }
+
+    public static void sort(long[] arr, int from, int to, long[] buffer){
+        // Sort arr[from, to) in place, using buffer[from, to) as scratch
+        // (one buffer can then be reused across many ranges)
+        if (from < 0 || to > arr.length || from > to){
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for length " + arr.length);
+        }
+        if (buffer.length < to){
+            throw new IllegalArgumentException("Buffer too small: " + buffer.length + " < " + to);
+        }
+        sortRange(arr, buffer, from, to, DEFAULT_THRESHOLD);
+    }
+
+    private static void sortRange(long[] arr, long[] buffer, int from, int to, int threshold){
+        // Sort arr[from, to) in place, using buffer[from, to) as scratch
+        int n = to - from;
+        if (n < threshold){
+            sequentialSort(arr, buffer, from, to);
+            return;
+        }
+
+        int chunks = numChunks(n, threshold);
+        int chunk_size = (n + chunks - 1) / chunks;
+
+        long[] chunk_diff = new long[chunks];
+        long first = arr[from];
+        parallelFor(0, chunks, c -> {
+            int lo = from + c * chunk_size;
+            int hi = Math.min(to, lo + chunk_size);
+            long diff = 0;
+            for (int i = lo; i < hi; i++){
+                diff |= arr[i] ^ first;
+            }
+            chunk_diff[c] = diff;
+        });
+        long diff = 0;
+        for (long d: chunk_diff){
+            diff |= d;
+        }
+        if (diff == 0){
+            return;
+        }
+
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(diff) - DIGIT_BITS + 1);
+
+        int[][] counts = new int[chunks][RADIX];
+        parallelFor(0, chunks, c -> {
+            int lo = from + c * chunk_size;
+            int hi = Math.min(to, lo + chunk_size);
+            int[] count = counts[c];
+            for (int i = lo; i < hi; i++){
+                count[(int) ((arr[i] ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)]++;
+            }
+        });
+
+        int[] bucket_start = new int[RADIX + 1];
+        int sum = from;
+        for (int d = 0; d < RADIX; d++){
+            bucket_start[d] = sum;
+            for (int c = 0; c < chunks; c++){
+                int count = counts[c][d];
+                counts[c][d] = sum;
+                sum += count;
+            }
+        }
+        bucket_start[RADIX] = sum;
+
+        parallelFor(0, chunks, c -> {
+            int lo = from + c * chunk_size;
+            int hi = Math.min(to, lo + chunk_size);
+            int[] offset = counts[c];
+            for (int i = lo; i < hi; i++){
+                long elem = arr[i];
+                buffer[offset[(int) ((elem ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)]++] = elem;
+            }
+        });
+
+        if (shift == 0){
+            parallelFor(0, chunks, c -> {
+                int lo = from + c * chunk_size;
+                int hi = Math.min(to, lo + chunk_size);
+                System.arraycopy(buffer, lo, arr, lo, hi - lo);
+            });
+            return;
+        }
+        parallelFor(0, RADIX, d -> {
+            int lo = bucket_start[d];
+            int hi = bucket_start[d + 1];
+            if (hi - lo == 0){
+                return;
+            }
+            sortRange(buffer, arr, lo, hi, threshold);
+            System.arraycopy(buffer, lo, arr, lo, hi - lo);
+        });
+    }
+
+    private static void sequentialSort(long[] arr, long[] buffer, int from, int to){
+        int n = to - from;
+        if (n < SMALL_RANGE_THRESHOLD){
+            Arrays.sort(arr, from, to);
+            return;
+        }
+
+        long diff = 0;
+        long first = arr[from];
+        for (int i = from; i < to; i++){
+            diff |= arr[i] ^ first;
+        }
+        int bits = 64 - Long.numberOfLeadingZeros(diff);
+        int passes = (bits + DIGIT_BITS - 1) / DIGIT_BITS;
+
+        int[] count = new int[RADIX];
+        long[] src = arr;
+        long[] dst = buffer;
+        for (int p = 0; p < passes; p++){
+            int shift = p * DIGIT_BITS;
+            Arrays.fill(count, 0);
+            for (int i = from; i < to; i++){
+                count[(int) ((src[i] ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)]++;
+            }
+            int sum = from;
+            for (int d = 0; d < RADIX; d++){
+                int c = count[d];
+                count[d] = sum;
+                sum += c;
+            }
+            for (int i = from; i < to; i++){
+                long elem = src[i];
+                dst[count[(int) ((elem ^ Long.MIN_VALUE) >>> shift) & (RADIX - 1)]++] = elem;
+            }
+            long[] temp = src;
+            src = dst;
+            dst = temp;
+        }
+        if (src != arr){
+            System.arraycopy(src, from, arr, from, n);
+        }
+    }
+
+    public static void main(String[] args){
+        // Compare against Arrays.parallelSort on random data
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Random random = new Random(42);
+        System.out.println("n = " + n + ", threads = "
+            + ForkJoinPool.getCommonPoolParallelism());
+
+        int[] ints = new int[n];
+        for (int i = 0; i < n; i++){
+            ints[i] = random.nextInt();
+        }
+        long[] longs = new long[n];
+        for (int i = 0; i < n; i++){
+            longs[i] = random.nextLong();
+        }
+
+        // A few rounds so the JIT has warmed up by the last one
+        for (int round = 0; round < 3; round++){
+            int[] copy_ints = ints.clone();
+            long start = System.nanoTime();
+            Arrays.parallelSort(copy_ints);
+            long baseline = System.nanoTime() - start;
+
+            copy_ints = ints.clone();
+            start = System.nanoTime();
+            sort(copy_ints);
+            long radix = System.nanoTime() - start;
+            System.out.println("int[]  parallelSort: " + baseline / 1000000L + " ms, radix: "
+                + radix / 1000000L + " ms, speedup: " + String.format("%.2f", (double) baseline / radix));
+
+            long[] copy_longs = longs.clone();
+            start = System.nanoTime();
+            Arrays.parallelSort(copy_longs);
+            baseline = System.nanoTime() - start;
+
+            copy_longs = longs.clone();
+            start = System.nanoTime();
+            sort(copy_longs);
+            radix = System.nanoTime() - start;
+            System.out.println("long[] parallelSort: " + baseline / 1000000L + " ms, radix: "
+                + radix / 1000000L + " ms, speedup: " + String.format("%.2f", (double) baseline / radix));
+        }
+    }
+}
@@ -1,4 +1,8 @@
 package algorithms.search_sort;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
 
 class Search {
     static int binarySearch(int[] sorted_arr, int start, int end, int elem){
@@ -17,6 +21,128 @@ class Search {
         return -1;
     }
 
+    static int interpolationSearch(int[] sorted_arr, int start, int end, int elem){
+        // Same contract as binarySearch, for keys spread close to uniformly:
+        // probe where `elem` should be if the values grow linearly between
+        // sorted_arr[start] and sorted_arr[end]
+        // Time complexity: O(log(log(n))) on uniform keys
+        // Guard: a probe that doesn't even halve the range is a bad step 
+        // (skewed keys); after 2 of them, finish with binarySearch, O(log(n))
+        int bad_steps = 0;
+        while (start <= end && elem >= sorted_arr[start] && elem <= sorted_arr[end]){
+            long low_value = sorted_arr[start];
+            long range = (long) sorted_arr[end] - low_value;
+            if (range == 0){
+                return start;
+            }
+            int pos = start + (int) ((elem - low_value) * (end - start) / range);
+            if (sorted_arr[pos] == elem){
+                return pos;
+            }
+
+            int size_before = end - start + 1;
+            if (sorted_arr[pos] < elem){
+                start = pos + 1;
+            } else {
+                end = pos - 1;
+            }
+            if (end - start + 1 > size_before / 2 && ++bad_steps >= 2){
+                return binarySearch(sorted_arr, start, end, elem);
+            }
+        }
+        return -1;
+    }
+
+    static int exponentialSearch(int[] sorted_arr, int hint, int elem){
+        // Index of `elem` in `sorted_arr`, or -1, searching outwards from `hint`
+        int pos = exponentialLowerBound(sorted_arr, hint, elem);
+        return pos < sorted_arr.length && sorted_arr[pos] == elem ? pos : -1;
+    }
+
+    static int exponentialLowerBound(int[] sorted_arr, int hint, int elem){
+        // First index with sorted_arr[index] >= elem (sorted_arr.length if none):
+        // where `elem` belongs. Probe hint +- 1, 2, 4, 8... until the key is
+        // passed, then binary search the last gap
+        // Time complexity: O(log(d)), d = distance between hint and the answer,
+        // so it doesn't depend on the array length
+        int n = sorted_arr.length;
+        if (n == 0){
+            return 0;
+        }
+        hint = Math.max(0, Math.min(n - 1, hint));
+
+        // Answer is in [low, high]
+        int low;
+        int high;
+        if (sorted_arr[hint] < elem){
+            // Gallop right
+            low = hint + 1;
+            high = n;
+            long step = 1;
+            while (hint + step < n){
+                int probe = (int) (hint + step);
+                if (sorted_arr[probe] >= elem){
+                    high = probe;
+                    break;
+                }
+                low = probe + 1;
+                step <<= 1;
+            }
+        } else {
+            // Gallop left
+            low = 0;
+            high = hint;
+            long step = 1;
+            while (hint - step >= 0){
+                int probe = (int) (hint - step);
+                if (sorted_arr[probe] < elem){
+                    low = probe + 1;
+                    break;
+                }
+                high = probe;
+                step <<= 1;
+            }
+        }
+
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (sorted_arr[mid] < elem){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static long exponentialLowerBound(LongPredicate before){
+        // Unbounded version, for keys whose count isn't known yet (eg: a sorted stream):
+        // before.test(index) = "the key at index exists and is < elem", false past the end
+        // as if those positions held +infinity. First index where it is false: where `elem`
+        // belongs (the number of keys if they are all smaller)
+        // Probe 0, 1, 3, 7, 15... until the key is passed, then binary search the last gap
+        // Time complexity: O(log(answer)) probes, never further than 2 * answer + 1
+        if (!before.test(0)){
+            return 0;
+        }
+        // before(low) is true, the answer is in (low, high]
+        long low = 0;
+        long high = 1;
+        while (before.test(high)){
+            low = high;
+            high = 2 * high + 1;
+        }
+        while (high - low > 1){
+            long mid = (low + high) >>> 1;
+            if (before.test(mid)){
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
     static int linearSearch(int[] arr, int start, int end, int elem){
         for (int i=start; i <= end; i++){
             if (arr[i] == elem){
@@ -26,6 +152,89 @@ class Search {
         return -1;
     }
 
+    // searchAll: queries looked up in lockstep, and queries per parallel chunk
+    private static final int INTERLEAVE = 16;
+    private static final int PARALLEL_CHUNK = 1 << 14;
+
+    static void searchAll(int[] sorted_arr, int[] queries, int[] out){
+        searchAll(sorted_arr, queries, out, false);
+    }
+
+    static void searchAll(int[] sorted_arr, int[] queries, int[] out, boolean parallel){
+        // Batch lookup: out[q] = index of the first `queries[q]` in `sorted_arr`, or -1
+        // - Sorted queries: galloping merge, each search starts where the
+        //   previous one ended. O(m log(n / m)) for m queries
+        // - Unsorted queries: INTERLEAVE branch-free binary searches run in
+        //   lockstep, so their cache misses overlap instead of queueing up
+        // parallel: split the queries into chunks over the common ForkJoinPool
+        if (out.length < queries.length){
+            throw new IllegalArgumentException("out is shorter than queries");
+        }
+        int m = queries.length;
+        if (!parallel || m < 2 * PARALLEL_CHUNK){
+            searchRange(sorted_arr, queries, out, 0, m);
+            return;
+        }
+        int chunks = (m + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * PARALLEL_CHUNK;
+            searchRange(sorted_arr, queries, out, from, Math.min(m, from + PARALLEL_CHUNK));
+        });
+    }
+
+    private static void searchRange(int[] sorted_arr, int[] queries, int[] out, int from, int to){
+        // Answer queries[from, to)
+        boolean queries_sorted = true;
+        for (int q = from + 1; q < to && queries_sorted; q++){
+            queries_sorted = queries[q - 1] <= queries[q];
+        }
+        if (queries_sorted){
+            mergeSearch(sorted_arr, queries, out, from, to);
+        } else {
+            interleavedSearch(sorted_arr, queries, out, from, to);
+        }
+    }
+
+    private static void mergeSearch(int[] sorted_arr, int[] queries, int[] out, int from, int to){
+        int n = sorted_arr.length;
+        int pos = 0;
+        for (int q = from; q < to; q++){
+            int elem = queries[q];
+            pos = Sort.gallopLowerBound(sorted_arr, pos, n, elem);
+            out[q] = pos < n && sorted_arr[pos] == elem ? pos : -1;
+        }
+    }
+
+    private static void interleavedSearch(int[] sorted_arr, int[] queries, int[] out, int from, int to){
+        int n = sorted_arr.length;
+        if (n == 0){
+            Arrays.fill(out, from, to, -1);
+            return;
+        }
+        int[] base = new int[INTERLEAVE];
+        for (int group = from; group < to; group += INTERLEAVE){
+            int size = Math.min(INTERLEAVE, to - group);
+            Arrays.fill(base, 0);
+
+            // Every search in the group halves the same length each step,
+            // so they advance together: base += half if the key is to the right
+            int len = n;
+            while (len > 1){
+                int half = len >>> 1;
+                for (int g = 0; g < size; g++){
+                    base[g] += sorted_arr[base[g] + half - 1] < queries[group + g] ? half : 0;
+                }
+                len -= half;
+            }
+
+            for (int g = 0; g < size; g++){
+                int elem = queries[group + g];
+                int pos = base[g] + (sorted_arr[base[g]] < elem ? 1 : 0);
+                out[group + g] = pos < n && sorted_arr[pos] == elem ? pos : -1;
+            }
+        }
+    }
+
     public static void main(String[] args){
         int[] test = {9, 8, 2, 3, 4, 7, 10, 11, 15, 21, 30};
 
@@ -40,6 +249,58 @@ class Search {
         System.out.println(linearSearch(test, 0, test.length, 30));
         end = System.nanoTime();
         System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+
+        // Unbounded stream: keys only read on demand, the end is found by running into it
+        System.out.println("Exponential search, unbounded (where 12 belongs):");
+        int[] stream = {2, 3, 4, 7, 9, 10, 11, 15, 21, 30};
+        int[] reads = {0};
+        long index = exponentialLowerBound(i -> {
+            reads[0]++;
+            return i < stream.length && stream[(int) i] < 12;
+        });
+        System.out.println(index + " after " + reads[0] + " reads\n");
+
+        // Batch lookup: many queries against the same big sorted array
+        int n = 1 << 24;
+        int num_queries = 4_000_000;
+        Random random = new Random(42);
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++){
+            sorted[i] = random.nextInt();
+        }
+        Sort.radixSort(sorted);
+        int[] queries = new int[num_queries];
+        for (int q = 0; q < num_queries; q++){
+            queries[q] = q % 2 == 0 ? sorted[random.nextInt(n)] : random.nextInt();
+        }
+        int[] out = new int[num_queries];
+
+        System.out.println("Batch of " + num_queries + " lookups, one binarySearch each:");
+        start = System.nanoTime();
+        for (int q = 0; q < num_queries; q++){
+            out[q] = binarySearch(sorted, 0, n - 1, queries[q]);
+        }
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+
+        System.out.println("searchAll, unsorted queries (interleaved):");
+        start = System.nanoTime();
+        searchAll(sorted, queries, out);
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+
+        System.out.println("searchAll, unsorted queries, parallel:");
+        start = System.nanoTime();
+        searchAll(sorted, queries, out, true);
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+
+        System.out.println("searchAll, sorted queries (galloping merge):");
+        Sort.radixSort(queries);
+        start = System.nanoTime();
+        searchAll(sorted, queries, out);
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
     }    
 }
 
@@ -0,0 +1,294 @@
+package algorithms.search_sort;
+import java.util.Arrays;
+import java.util.Random;
+import java.lang.System;
+
+// Selection: find the k smallest values (or a percentile) without a full sort
+// 1. select: introselect (quickselect with a fallback to sorting
+//    when partitioning goes badly), in place, O(n) expected
+// 2. topK: the k smallest values, sorted, O(n + k log(k))
+// 3. TopKAccumulator: streaming top-k over values added one at a time,
+//    with a bounded primitive heap, O(log(k)) per value and O(k) memory
+
+public class Select {
+    // Below this many elements, just sort the range
+    private static final int SMALL_RANGE_THRESHOLD = 16;
+
+    public static int select(int[] arr, int k){
+        // Return the k-th smallest value (k from 0) of `arr`
+        // `arr` is reordered in place so that: arr[k] is the value,
+        // arr[0, k) <= arr[k] <= arr(k, n)
+        return select(arr, 0, arr.length, k);
+    }
+
+    public static int select(int[] arr, int from, int to, int k){
+        // Same as select(arr, k), restricted to the range [`from`, `to`)
+        // (k is an index into `arr`, from <= k < to)
+        if (k < from || k >= to){
+            throw new IllegalArgumentException("k = " + k + " is outside [" + from + ", " + to + ")");
+        }
+        int low = from;
+        int high = to - 1;
+
+        // After 2 * log2(n) partitions without converging, give up
+        // on quickselect and sort what is left (O(n log(n)) worst case)
+        int depth_limit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+
+        while (high - low + 1 > SMALL_RANGE_THRESHOLD){
+            if (depth_limit-- == 0){
+                Sort.quickSort(arr, low, high + 1);
+                return arr[k];
+            }
+
+            // Median of 3 pivot
+            int mid = low + (high - low) / 2;
+            int pivot = medianOf3(arr[low], arr[mid], arr[high]);
+
+            // 3-way partition: [low, lt) < pivot, [lt, gt] == pivot, (gt, high] > pivot
+            // Runs of equal values are settled in a single step
+            int lt = low;
+            int gt = high;
+            int i = low;
+            while (i <= gt){
+                int elem = arr[i];
+                if (elem < pivot){
+                    swap(arr, lt, i);
+                    lt++;
+                    i++;
+                } else if (elem > pivot){
+                    swap(arr, i, gt);
+                    gt--;
+                } else {
+                    i++;
+                }
+            }
+
+            // Only keep the part containing k
+            if (k < lt){
+                high = lt - 1;
+            } else if (k > gt){
+                low = gt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        Sort.quickSort(arr, low, high + 1);
+        return arr[k];
+    }
+
+    public static int[] topK(int[] arr, int k){
+        // Return the k smallest values of `arr`, sorted ascending
+        // `arr` is partially reordered in place (see select)
+        if (k < 0 || k > arr.length){
+            throw new IllegalArgumentException("k = " + k + " for length " + arr.length);
+        }
+        if (k == 0){
+            return new int[0];
+        }
+        select(arr, k - 1);
+        int[] result = Arrays.copyOf(arr, k);
+        return Sort.quickSort(result);
+    }
+
+    public static int percentile(int[] arr, double p){
+        // Nearest-rank percentile, p in [0, 1] (eg: 0.99 for p99)
+        // `arr` is partially reordered in place (see select)
+        return select(arr, percentileRank(arr.length, p));
+    }
+
+    public static int[] percentiles(int[] arr, double... ps){
+        // Several percentiles at once, eg: percentiles(latencies, 0.5, 0.99, 0.999)
+        // Each select only searches the part to the right of the previous
+        // (smaller) rank, which is already partitioned
+        int[] ranks = new int[ps.length];
+        for (int i = 0; i < ps.length; i++){
+            ranks[i] = percentileRank(arr.length, ps[i]);
+        }
+        int[] order = Sort.argsort(ranks);
+
+        int[] results = new int[ps.length];
+        int from = 0;
+        for (int i: order){
+            results[i] = select(arr, from, arr.length, ranks[i]);
+            from = ranks[i];
+        }
+        return results;
+    }
+
+    private static int percentileRank(int n, double p){
+        if (n == 0){
+            throw new IllegalArgumentException("No values");
+        }
+        if (!(p >= 0 && p <= 1)){
+            throw new IllegalArgumentException("p must be in [0, 1]: " + p);
+        }
+        return Math.max(0, (int) Math.ceil(p * n) - 1);
+    }
+
+    private static int medianOf3(int a, int b, int c){
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(int[] arr, int i, int j){
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    //-----------------
+    // Streaming top-k
+
+    // Keep the k smallest (or largest) values seen so far
+    // Stored as a max heap of size k in an int[]: the root is the
+    // current k-th smallest, so a new value either replaces it or is dropped
+    // (largest: values are stored bit-flipped, ~x, which reverses the order)
+    public static class TopKAccumulator {
+        private final int[] heap;
+        private final boolean largest;
+        private int size = 0;
+        private long count = 0;
+
+        public TopKAccumulator(int k){
+            this(k, false);
+        }
+
+        public TopKAccumulator(int k, boolean largest){
+            if (k < 1){
+                throw new IllegalArgumentException("k must be positive: " + k);
+            }
+            this.heap = new int[k];
+            this.largest = largest;
+        }
+
+        public void add(int value){
+            count++;
+            int key = largest ? ~value : value;
+            if (size < heap.length){
+                // Sift up
+                int i = size++;
+                while (i > 0){
+                    int parent = (i - 1) / 2;
+                    if (heap[parent] >= key){
+                        break;
+                    }
+                    heap[i] = heap[parent];
+                    i = parent;
+                }
+                heap[i] = key;
+            } else if (key < heap[0]){
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        public void addAll(int[] values){
+            addAll(values, 0, values.length);
+        }
+
+        public void addAll(int[] values, int from, int to){
+            // Batch add of values[from, to)
+            for (int i = from; i < to; i++){
+                add(values[i]);
+            }
+        }
+
+        public int size(){
+            // Number of values kept (<= k)
+            return size;
+        }
+
+        public long count(){
+            // Number of values added so far
+            return count;
+        }
+
+        public int peek(){
+            // The k-th smallest (largest) value so far, the boundary of the top k
+            if (size == 0){
+                throw new IllegalStateException("No values");
+            }
+            return largest ? ~heap[0] : heap[0];
+        }
+
+        public int[] toSortedArray(){
+            // The values kept: ascending for smallest, descending for largest
+            int[] result = Arrays.copyOf(heap, size);
+            Sort.quickSort(result);
+            if (largest){
+                for (int i = 0; i < size; i++){
+                    result[i] = ~result[i];
+                }
+            }
+            return result;
+        }
+
+        public void clear(){
+            size = 0;
+            count = 0;
+        }
+
+        private void siftDown(int i){
+            int key = heap[i];
+            int child;
+            while ((child = 2 * i + 1) < size){
+                if (child + 1 < size && heap[child + 1] > heap[child]){
+                    child++;
+                }
+                if (heap[child] <= key){
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = key;
+        }
+    }
+
+    public static void main(String[] args){
+        int[] test = {9, 8, 2, 3, 4, 7, 10, 11, 15, 21, 30};
+
+        System.out.println("Select 3rd smallest:");
+        long start = System.nanoTime();
+        System.out.println(select(test.clone(), 2));
+        long end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000L + " us\n");
+
+        System.out.println("Top 4:");
+        start = System.nanoTime();
+        System.out.println(Arrays.toString(topK(test.clone(), 4)));
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000L + " us\n");
+
+        // Latency percentiles over many samples vs a full sort
+        int n = 10_000_000;
+        Random random = new Random(42);
+        int[] latencies = new int[n];
+        for (int i = 0; i < n; i++){
+            latencies[i] = (int) Math.min(Integer.MAX_VALUE, Math.exp(random.nextGaussian() * 2 + 8));
+        }
+
+        System.out.println("p50, p99, p999 (select):");
+        int[] copy = latencies.clone();
+        start = System.nanoTime();
+        System.out.println(Arrays.toString(percentiles(copy, 0.5, 0.99, 0.999)));
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+
+        System.out.println("p999 (streaming, keep the values from the p999 rank up):");
+        TopKAccumulator accumulator = new TopKAccumulator(n - (int) Math.ceil(0.999 * n) + 1, true);
+        start = System.nanoTime();
+        accumulator.addAll(latencies);
+        System.out.println(accumulator.peek());
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+
+        System.out.println("p50, p99, p999 (full sort):");
+        copy = latencies.clone();
+        start = System.nanoTime();
+        Sort.quickSort(copy);
+        System.out.println("[" + copy[n / 2 - 1] + ", " + copy[(int) Math.ceil(0.99 * n) - 1]
+            + ", " + copy[(int) Math.ceil(0.999 * n) - 1] + "]");
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/ 1000000L + " ms\n");
+    }
+}
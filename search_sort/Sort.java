@@ -1,57 +1,271 @@
 package algorithms.search_sort;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 import java.lang.System;
 
 
 public class Sort {
+    // Below this many elements, insertion sort beats partitioning
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    // From this many elements, countingSortInPlace builds its histogram in parallel
+    private static final int PARALLEL_COUNTING_THRESHOLD = 1 << 20;
+    // mergeSort: shortest run before merging, and how many wins in a row
+    // from one run before switching to galloping
+    private static final int MIN_RUN = 32;
+    private static final int MIN_GALLOP = 7;
+    // mergeSort: pending runs on the stack. Each run is longer than the next two
+    // together and at least MIN_RUN, so the lengths grow like Fibonacci numbers
+    // from the top: 40 runs would already hold more than 2^31 elements
+    private static final int MAX_PENDING_RUNS = 48;
+
     public static int[] quickSort(int[] arr){
-        // Recursion implement. Could be enhanced with Double pivot?
-        // Stable sort. Time complexity: O(n log(n))
-        if (arr.length <= 1){
-            return arr;
-        }
+        // Sorts `arr` in place and returns it for convenience
+        // Dual-pivot quicksort (introsort style): partition into 3 parts
+        // with 2 pivots, insertion sort for small ranges, and heap sort
+        // when recursion gets too deep (adversarial inputs)
+        // Not stable. Time complexity: O(n log(n)) worst case
+        // Space complexity: O(log(n)) for the recursion, no extra arrays
+        quickSort(arr, 0, arr.length);
+        return arr;
+    }
 
-        int pivot = arr[arr.length / 2];
-        ArrayList<Integer> lower = new ArrayList<Integer>();
-        ArrayList<Integer> higher = new ArrayList<Integer>();
+    public static void quickSort(int[] arr, int from, int to){
+        // Sort the range [`from`, `to`) of `arr` in place
+        if (from < 0 || to > arr.length || from > to){
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for length " + arr.length);
+        }
+        // Depth limit: 2 * log2(n), after which heap sort takes over
+        int depth_limit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+        dualPivotQuickSort(arr, from, to - 1, depth_limit);
+    }
 
-        for (int i = 0; i < arr.length; i++){
-            if (i == arr.length/ 2){
-                continue;
+    private static void dualPivotQuickSort(int[] arr, int low, int high, int depth_limit){
+        // Sort [`low`, `high`] (both inclusive)
+        // Loop on the middle part, recurse on the outer parts
+        while (high - low + 1 > INSERTION_SORT_THRESHOLD){
+            if (depth_limit == 0){
+                heapSort(arr, low, high + 1);
+                return;
             }
-            int elem = arr[i];
-            if (elem < pivot){
-                lower.add(elem);
-            } else {
-                higher.add(elem);
+            depth_limit--;
+
+            // Pick pivots at the 1/3 and 2/3 positions, move them to both ends
+            int third = (high - low) / 3;
+            swap(arr, low, low + third);
+            swap(arr, high, high - third);
+            if (arr[low] > arr[high]){
+                swap(arr, low, high);
+            }
+            int pivot1 = arr[low];
+            int pivot2 = arr[high];
+
+            // Invariant: [low+1, lt) < pivot1, [lt, i) in [pivot1, pivot2],
+            // (gt, high-1] > pivot2, [i, gt] not yet checked
+            int lt = low + 1;
+            int gt = high - 1;
+            int i = lt;
+            while (i <= gt){
+                int elem = arr[i];
+                if (elem < pivot1){
+                    swap(arr, i, lt);
+                    lt++;
+                } else if (elem > pivot2){
+                    while (arr[gt] > pivot2 && i < gt){
+                        gt--;
+                    }
+                    swap(arr, i, gt);
+                    gt--;
+                    if (arr[i] < pivot1){
+                        swap(arr, i, lt);
+                        lt++;
+                    }
+                }
+                i++;
             }
-        }
 
-        int[] lower_arr = lower.stream().mapToInt(i -> i).toArray();
-        int[] higher_arr = higher.stream().mapToInt(i -> i).toArray();
+            // Put the pivots into their final positions
+            lt--;
+            gt++;
+            swap(arr, low, lt);
+            swap(arr, high, gt);
 
-        lower_arr = quickSort(lower_arr);
-        higher_arr = quickSort(higher_arr);
+            dualPivotQuickSort(arr, low, lt - 1, depth_limit);
+            dualPivotQuickSort(arr, gt + 1, high, depth_limit);
 
-        int[] sorted = new int[arr.length];
-        
-        for (int i = 0; i < sorted.length; i++){
-            if (i < lower_arr.length){
-                sorted[i] = lower_arr[i];
-                continue;
+            if (pivot1 == pivot2){
+                // Middle part is all equal to the pivots
+                return;
             }
 
-            if (i == lower_arr.length){
-                sorted[i] = pivot;
-                continue;
+            // Middle part: only values in [pivot1, pivot2] remain.
+            // If it is large (many duplicates), move the keys equal to
+            // the pivots out of the way first so equal keys don't loop
+            low = lt + 1;
+            high = gt - 1;
+            if (high - low > 2 * third){
+                while (low <= high && arr[low] == pivot1){
+                    low++;
+                }
+                while (low <= high && arr[high] == pivot2){
+                    high--;
+                }
+                int k = low;
+                while (k <= high){
+                    int elem = arr[k];
+                    if (elem == pivot1){
+                        swap(arr, k, low);
+                        low++;
+                        k++;
+                    } else if (elem == pivot2){
+                        swap(arr, k, high);
+                        high--;
+                    } else {
+                        k++;
+                    }
+                }
             }
+        }
+        insertionSort(arr, low, high);
+    }
 
-            sorted[i] = higher_arr[i - lower_arr.length - 1];
+    private static void insertionSort(int[] arr, int low, int high){
+        // Sort [`low`, `high`] (both inclusive), fast for small ranges
+        for (int i = low + 1; i <= high; i++){
+            int elem = arr[i];
+            int j = i - 1;
+            while (j >= low && arr[j] > elem){
+                arr[j + 1] = arr[j];
+                j--;
+            }
+            arr[j + 1] = elem;
         }
+    }
 
-        return sorted;
+    private static void heapSort(int[] arr, int from, int to){
+        // Sort [`from`, `to`) with an in-place max heap
+        // Fallback for quicksort: O(n log(n)) guaranteed
+        int n = to - from;
+        for (int i = n / 2 - 1; i >= 0; i--){
+            siftDown(arr, from, i, n);
+        }
+        for (int end = n - 1; end > 0; end--){
+            swap(arr, from, from + end);
+            siftDown(arr, from, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] arr, int offset, int i, int n){
+        // Max heap over arr[offset, offset + n), children of i at 2i + 1 and 2i + 2
+        int elem = arr[offset + i];
+        int child;
+        while ((child = 2 * i + 1) < n){
+            if (child + 1 < n && arr[offset + child + 1] > arr[offset + child]){
+                child++;
+            }
+            if (arr[offset + child] <= elem){
+                break;
+            }
+            arr[offset + i] = arr[offset + child];
+            i = child;
+        }
+        arr[offset + i] = elem;
+    }
+
+    private static void swap(int[] arr, int i, int j){
+        int temp = arr[i];
+        arr[i] = arr[j];
+        arr[j] = temp;
+    }
+
+    public static int[] countingSortInPlace(int[] arr){
+        // Sorts `arr` in place and returns it for convenience
+        // (countingSort(arr, start, end) below returns a new array instead)
+        // Adaptive: find the range [min, max] first, then
+        // - dense range (k <= n): counting sort, O(n + k)
+        // - sparse range: radix sort, O(n)
+        // Large inputs build the histogram in parallel, one count array
+        // per chunk, merged afterwards
+        int n = arr.length;
+        if (n <= 1){
+            return arr;
+        }
+        boolean parallel = n >= PARALLEL_COUNTING_THRESHOLD
+            && ForkJoinPool.getCommonPoolParallelism() > 1;
+        int chunks = parallel ? 4 * ForkJoinPool.getCommonPoolParallelism() : 1;
+        int chunk_size = (n + chunks - 1) / chunks;
+
+        // 1. Find min & max in one pass (per chunk)
+        int[] chunk_min = new int[chunks];
+        int[] chunk_max = new int[chunks];
+        IntStream chunk_ids = IntStream.range(0, chunks);
+        (parallel ? chunk_ids.parallel() : chunk_ids).forEach(c -> {
+            int lo = c * chunk_size;
+            int hi = Math.min(n, lo + chunk_size);
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = lo; i < hi; i++){
+                min = Math.min(min, arr[i]);
+                max = Math.max(max, arr[i]);
+            }
+            chunk_min[c] = min;
+            chunk_max[c] = max;
+        });
+        int min = Arrays.stream(chunk_min).min().getAsInt();
+        int max = Arrays.stream(chunk_max).max().getAsInt();
+
+        // 2. Sparse range: the count array would be bigger than the input
+        long range = (long) max - min + 1;
+        if (range > n){
+            return radixSort(arr);
+        }
+        int k = (int) range;
+
+        // 3. Histogram, one count array per chunk
+        // Only use as many chunks as fit in O(n) extra memory
+        int count_chunks = parallel ? (int) Math.max(1, Math.min(chunks, n / range)) : 1;
+        int count_chunk_size = (n + count_chunks - 1) / count_chunks;
+        int[][] counts = new int[count_chunks][];
+        IntStream count_ids = IntStream.range(0, count_chunks);
+        (parallel ? count_ids.parallel() : count_ids).forEach(c -> {
+            int lo = c * count_chunk_size;
+            int hi = Math.min(n, lo + count_chunk_size);
+            int[] count = new int[k];
+            for (int i = lo; i < hi; i++){
+                count[arr[i] - min]++;
+            }
+            counts[c] = count;
+        });
+
+        // 4. Merge the count arrays into the first one
+        int[] count = counts[0];
+        for (int c = 1; c < count_chunks; c++){
+            int[] other = counts[c];
+            for (int v = 0; v < k; v++){
+                count[v] += other[v];
+            }
+        }
 
+        // 5. For int, generate output from counts directly
+        // Each value v fills [start_v, start_v + count_v); split the values 
+        // into slices that can be written independently
+        int[] starts = new int[k];
+        int sum = 0;
+        for (int v = 0; v < k; v++){
+            starts[v] = sum;
+            sum += count[v];
+        }
+        int slices = parallel ? chunks : 1;
+        int slice_size = (k + slices - 1) / slices;
+        IntStream slice_ids = IntStream.range(0, slices);
+        (parallel ? slice_ids.parallel() : slice_ids).forEach(s -> {
+            int lo = s * slice_size;
+            int hi = Math.min(k, lo + slice_size);
+            for (int v = lo; v < hi; v++){
+                Arrays.fill(arr, starts[v], starts[v] + count[v], min + v);
+            }
+        });
+        return arr;
     }
 
     public static int[] countingSort(int[] arr, int start, int end){
@@ -89,53 +303,413 @@ public class Sort {
         return output;
     }
 
-    private static int[] countingSortForRadix(int[] arr, int start, int end, short bit_position){
-        // Only used for when all elements in `arr` is within range [`start`, `end`]
-        // Stable sort (extra steps shown for sorting objects. 
-        // For int, generate output from counts directly)
-        // bit_position: The bit used to sort for radix
-        // Time complexity: O(n + k) sort (n: number of items in arr, k = start - end + 1)
-        // Space complexity: O(n + k)
+    public static int[] radixSort(int[] arr){
+        // Sorts `arr` in place and returns it for convenience
+        // LSD (Least Significant Digit) radix sort with 8-bit digits (4 passes)
+        // Time complexity: O(n), Space complexity: O(n) for the scratch buffer
+        int[] buffer = new int[arr.length];
+        int[] counts = new int[radixCountsLength(8)];
+        int[] sorted = radixSort(arr, buffer, counts, 8);
+        if (sorted != arr){
+            System.arraycopy(sorted, 0, arr, 0, arr.length);
+        }
+        return arr;
+    }
 
-        int k = end - start + 1; // Range value
-        int[] count = new int[k];
-        int[] output = new int[arr.length];
-        
-        // Fill the count
-        for (int i=0; i < arr.length; i++){
-            int cur_elem = arr[i] >> bit_position & 1;
-            count[cur_elem - start] += 1;
+    public static int radixCountsLength(int digit_bits){
+        // Size of the `counts` array needed by radixSort for `digit_bits`
+        int passes = (32 + digit_bits - 1) / digit_bits;
+        return passes << digit_bits;
+    }
+
+    public static int[] radixSort(int[] arr, int[] buffer, int[] counts, int digit_bits){
+        // LSD radix sort on all of `arr`, ping-ponging between `arr` and `buffer`
+        // Nothing is allocated, so the caller can reuse `buffer` and `counts`
+        // across sorts (buffer.length >= arr.length, 
+        // counts.length >= radixCountsLength(digit_bits))
+        // digit_bits: usually 8 (4 passes) or 11 (3 passes)
+
+        // Return the array holding the sorted output (either `arr` or `buffer`)
+        // Stable sort. Time complexity: O(passes * (n + 2^digit_bits))
+        if (digit_bits < 1 || digit_bits > 16){
+            throw new IllegalArgumentException("digit_bits must be in [1, 16]: " + digit_bits);
+        }
+        int n = arr.length;
+        int passes = (32 + digit_bits - 1) / digit_bits;
+        int radix = 1 << digit_bits;
+        int mask = radix - 1;
+        if (buffer.length < n || counts.length < passes * radix){
+            throw new IllegalArgumentException("buffer or counts too small");
+        }
+        if (n <= 1){
+            return arr;
         }
 
+        // Build the histograms of every pass in one read of the input
+        // Flip the sign bit so negatives order before positives
+        Arrays.fill(counts, 0, passes * radix, 0);
+        for (int i = 0; i < n; i++){
+            int key = arr[i] ^ Integer.MIN_VALUE;
+            for (int p = 0; p < passes; p++){
+                counts[p * radix + ((key >>> (p * digit_bits)) & mask)]++;
+            }
+        }
 
-        // Find cumulative counts for identifying index 
-        // Used in insertion in next step
-        for (int i=1; i < k; i++){
-            count[i] += count[i - 1];
+        int[] src = arr;
+        int[] dst = buffer;
+        for (int p = 0; p < passes; p++){
+            int base = p * radix;
+            int shift = p * digit_bits;
+
+            // Skip the pass if every element has the same digit
+            if (counts[base + (((src[0] ^ Integer.MIN_VALUE) >>> shift) & mask)] == n){
+                continue;
+            }
+
+            // Turn counts into starting indices (exclusive prefix sum)
+            int sum = 0;
+            for (int d = 0; d < radix; d++){
+                int count = counts[base + d];
+                counts[base + d] = sum;
+                sum += count;
+            }
+
+            // Scatter in input order to keep the sort stable
+            for (int i = 0; i < n; i++){
+                int elem = src[i];
+                int digit = ((elem ^ Integer.MIN_VALUE) >>> shift) & mask;
+                dst[counts[base + digit]++] = elem;
+            }
+
+            int[] temp = src;
+            src = dst;
+            dst = temp;
         }
 
+        return src;
+    }
 
-        // Insert elements in reversed order
-        // To preserve same order for same key
-        for (int i=arr.length - 1; i >= 0; i--){
-            int cur_elem = arr[i] >> bit_position & 1;
-            output[count[cur_elem - start] - 1] = arr[i];
-            count[cur_elem - start]--;
+    public static int[] mergeSort(int[] arr){
+        // Sorts `arr` in place and returns it for convenience
+        mergeSort(arr, 0, arr.length, new int[arr.length]);
+        return arr;
+    }
+
+    public static void mergeSort(int[] arr, int from, int to, int[] buffer){
+        // Natural merge sort of [`from`, `to`), for input made of sorted pieces
+        // (eg: concatenated pre-sorted shards)
+        // 1. Split into runs: ascending, or strictly descending (reversed in place)
+        //    Short runs are extended to MIN_RUN with insertion sort
+        // 2. Push each run on a stack of pending runs, and merge the top ones while
+        //    a run is not longer than the next two together (Timsort rule): merges
+        //    stay balanced, and the stack stays O(log(n)) deep
+        // 3. Merge what is left on the stack, galloping over long stretches
+        //    taken from the same run
+
+        // Stable sort. Time complexity: O(n log(k)) for k runs, O(n) if already sorted
+        // Space complexity: `buffer` (length >= to - from) is the only scratch the
+        // size of the input, so it can be reused across calls. The run stack is a
+        // fixed MAX_PENDING_RUNS + 1 ints, whatever the input size
+        if (from < 0 || to > arr.length || from > to){
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") for length " + arr.length);
+        }
+        if (buffer.length < to - from){
+            throw new IllegalArgumentException("buffer too small");
+        }
+        if (to - from <= 1){
+            return;
         }
 
-        return output;
+        // Run boundaries: pending run r is [runs[r], runs[r + 1]), r < run_count
+        int[] runs = new int[MAX_PENDING_RUNS + 1];
+        int run_count = 0;
+        runs[0] = from;
+        int i = from;
+        while (i < to){
+            int j = i + 1;
+            if (j < to && arr[j] < arr[i]){
+                // Strictly descending only, so reversing keeps it stable
+                while (j + 1 < to && arr[j + 1] < arr[j]){
+                    j++;
+                }
+                j++;
+                reverse(arr, i, j - 1);
+            } else {
+                while (j < to && arr[j] >= arr[j - 1]){
+                    j++;
+                }
+            }
+            if (j - i < MIN_RUN){
+                j = Math.min(to, i + MIN_RUN);
+                insertionSort(arr, i, j - 1);
+            }
+            runs[++run_count] = j;
+            i = j;
+
+            // Restore the invariant on the top 3 runs (and the one below, which
+            // the original Timsort rule forgot)
+            while (run_count > 1){
+                int r = run_count - 2;
+                if ((r > 0 && runLength(runs, r - 1) <= runLength(runs, r) + runLength(runs, r + 1))
+                    || (r > 1 && runLength(runs, r - 2) <= runLength(runs, r - 1) + runLength(runs, r))){
+                    if (runLength(runs, r - 1) < runLength(runs, r + 1)){
+                        r--;
+                    }
+                } else if (runLength(runs, r) > runLength(runs, r + 1)){
+                    break;
+                }
+                run_count = mergeAt(arr, runs, run_count, r, buffer);
+            }
+        }
+
+        // Merge the rest, top down
+        while (run_count > 1){
+            int r = run_count - 2;
+            if (r > 0 && runLength(runs, r - 1) < runLength(runs, r + 1)){
+                r--;
+            }
+            run_count = mergeAt(arr, runs, run_count, r, buffer);
+        }
     }
 
-    public static int[] radixSort(int[] arr){
-        // int-type has 32 bits
-        // Apply LSD (Least Significant Digit) radixSort by applying countingSort 
-        // on each bit
-        // Time complexity: O(n), Space complexity: O(n) for the counting sort
+    private static int runLength(int[] runs, int r){
+        return runs[r + 1] - runs[r];
+    }
+
+    private static int mergeAt(int[] arr, int[] runs, int run_count, int r, int[] buffer){
+        // Merge pending runs r & r + 1 into one, return the new number of runs
+        mergeRuns(arr, runs[r], runs[r + 1], runs[r + 2], buffer);
+        System.arraycopy(runs, r + 2, runs, r + 1, run_count - r - 1);
+        return run_count - 1;
+    }
+
+    private static void mergeRuns(int[] arr, int low, int mid, int high, int[] buffer){
+        // Merge the sorted runs [low, mid) and [mid, high) in place
 
-        for (short i=0; i < 32; i++){
-            arr = countingSortForRadix(arr, 0, 1, i);
+        // Skip the start of the left run that is already in place (<= first of right),
+        // and the end of the right run (>= last of left)
+        low = gallopUpperBound(arr, low, mid, arr[mid]);
+        if (low == mid){
+            return;
+        }
+        high = gallopLowerBound(arr, mid, high, arr[mid - 1]);
+
+        int left_len = mid - low;
+        System.arraycopy(arr, low, buffer, 0, left_len);
+        int i = 0;
+        int j = mid;
+        int k = low;
+        int left_wins = 0;
+        int right_wins = 0;
+        while (i < left_len && j < high){
+            if (arr[j] < buffer[i]){
+                arr[k++] = arr[j++];
+                left_wins = 0;
+                if (++right_wins >= MIN_GALLOP){
+                    // Right keeps winning: copy everything smaller than buffer[i] at once
+                    int end = gallopLowerBound(arr, j, high, buffer[i]);
+                    System.arraycopy(arr, j, arr, k, end - j);
+                    k += end - j;
+                    j = end;
+                    right_wins = 0;
+                }
+            } else {
+                // Ties go to the left run (stable)
+                arr[k++] = buffer[i++];
+                right_wins = 0;
+                if (++left_wins >= MIN_GALLOP && j < high){
+                    int end = gallopUpperBound(buffer, i, left_len, arr[j]);
+                    System.arraycopy(buffer, i, arr, k, end - i);
+                    k += end - i;
+                    i = end;
+                    left_wins = 0;
+                }
+            }
+        }
+        // What is left of the right run is already in place
+        System.arraycopy(buffer, i, arr, k, left_len - i);
+    }
+
+    static int gallopLowerBound(int[] arr, int from, int to, int key){
+        // First index in [from, to) with arr[index] >= key (sorted range)
+        // Exponential search from `from`, then binary search: O(log(distance))
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < to && arr[high] < key){
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, to);
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (arr[mid] < key){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int gallopUpperBound(int[] arr, int from, int to, int key){
+        // First index in [from, to) with arr[index] > key (sorted range)
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < to && arr[high] <= key){
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, to);
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (arr[mid] <= key){
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static void reverse(int[] arr, int low, int high){
+        // Reverse [low, high] (both inclusive)
+        while (low < high){
+            swap(arr, low++, high--);
+        }
+    }
+
+    public static void sortByKey(int[] keys, int[] payload){
+        // Sort `keys` in place, moving payload[i] along with keys[i]
+        // (eg: edge ids sorted by edge weight)
+        // LSD radix sort on 8-bit digits with the counting sort passes
+        // Stable sort. Time complexity: O(n), Space complexity: O(n)
+        int n = keys.length;
+        if (payload.length != n){
+            throw new IllegalArgumentException("keys and payload must have the same length");
+        }
+        if (n <= 1){
+            return;
+        }
+
+        int[] src_keys = keys;
+        int[] src_payload = payload;
+        int[] dst_keys = new int[n];
+        int[] dst_payload = new int[n];
+        int[] count = new int[256];
+
+        for (int shift = 0; shift < 32; shift += 8){
+            if (!countDigits(src_keys, shift, count)){
+                continue;
+            }
+            for (int i = 0; i < n; i++){
+                int key = src_keys[i];
+                int index = count[((key ^ Integer.MIN_VALUE) >>> shift) & 255]++;
+                dst_keys[index] = key;
+                dst_payload[index] = src_payload[i];
+            }
+            int[] temp = src_keys;
+            src_keys = dst_keys;
+            dst_keys = temp;
+            temp = src_payload;
+            src_payload = dst_payload;
+            dst_payload = temp;
+        }
+
+        if (src_keys != keys){
+            System.arraycopy(src_keys, 0, keys, 0, n);
+            System.arraycopy(src_payload, 0, payload, 0, n);
         }
-        return arr;
+    }
+
+    public static void sortByKey(long[] keys, long[] payload){
+        // Same as sortByKey(int[], int[]) for 64-bit keys (8 passes)
+        int n = keys.length;
+        if (payload.length != n){
+            throw new IllegalArgumentException("keys and payload must have the same length");
+        }
+        if (n <= 1){
+            return;
+        }
+
+        long[] src_keys = keys;
+        long[] src_payload = payload;
+        long[] dst_keys = new long[n];
+        long[] dst_payload = new long[n];
+        int[] count = new int[256];
+
+        for (int shift = 0; shift < 64; shift += 8){
+            if (!countDigits(src_keys, shift, count)){
+                continue;
+            }
+            for (int i = 0; i < n; i++){
+                long key = src_keys[i];
+                int index = count[(int) ((key ^ Long.MIN_VALUE) >>> shift) & 255]++;
+                dst_keys[index] = key;
+                dst_payload[index] = src_payload[i];
+            }
+            long[] temp = src_keys;
+            src_keys = dst_keys;
+            dst_keys = temp;
+            temp = src_payload;
+            src_payload = dst_payload;
+            dst_payload = temp;
+        }
+
+        if (src_keys != keys){
+            System.arraycopy(src_keys, 0, keys, 0, n);
+            System.arraycopy(src_payload, 0, payload, 0, n);
+        }
+    }
+
+    public static int[] argsort(int[] keys){
+        // Return the indices that sort `keys` (keys is not modified):
+        // keys[result[0]] <= keys[result[1]] <= ...
+        // Equal keys keep their original index order (stable)
+        int[] key_copy = keys.clone();
+        int[] indices = new int[keys.length];
+        for (int i = 0; i < indices.length; i++){
+            indices[i] = i;
+        }
+        sortByKey(key_copy, indices);
+        return indices;
+    }
+
+    private static boolean countDigits(int[] keys, int shift, int[] count){
+        // Fill `count` with the starting index of each 8-bit digit at `shift`
+        // (sign bit flipped). Return false if every key has the same digit,
+        // in which case the pass can be skipped
+        Arrays.fill(count, 0);
+        for (int i = 0; i < keys.length; i++){
+            count[((keys[i] ^ Integer.MIN_VALUE) >>> shift) & 255]++;
+        }
+        return prefixSum(count, keys.length);
+    }
+
+    private static boolean countDigits(long[] keys, int shift, int[] count){
+        Arrays.fill(count, 0);
+        for (int i = 0; i < keys.length; i++){
+            count[(int) ((keys[i] ^ Long.MIN_VALUE) >>> shift) & 255]++;
+        }
+        return prefixSum(count, keys.length);
+    }
+
+    private static boolean prefixSum(int[] count, int n){
+        // Exclusive prefix sum in place; false if a single digit holds all n
+        int sum = 0;
+        boolean useful = true;
+        for (int d = 0; d < count.length; d++){
+            int c = count[d];
+            if (c == n){
+                useful = false;
+            }
+            count[d] = sum;
+            sum += c;
+        }
+        return useful;
     }
 
     public static void main(String[] args){
@@ -152,7 +726,13 @@ public class Sort {
 
         System.out.println("Quicksort:");
         start = System.nanoTime();
-        System.out.println(Arrays.toString(quickSort(test)));
+        System.out.println(Arrays.toString(quickSort(test.clone())));
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/1000000l + " ms\n");
+
+        System.out.println("Natural merge sort:");
+        start = System.nanoTime();
+        System.out.println(Arrays.toString(mergeSort(test.clone())));
         end = System.nanoTime();
         System.out.println("Time: " + (end - start)/1000000l + " ms\n");
 
@@ -162,6 +742,12 @@ public class Sort {
         end = System.nanoTime();
         System.out.println("Time: " + (end - start)/1000000l + " ms\n");
 
+        System.out.println("Adaptive counting sort:");
+        start = System.nanoTime();
+        System.out.println(Arrays.toString(countingSortInPlace(test.clone())));
+        end = System.nanoTime();
+        System.out.println("Time: " + (end - start)/1000000l + " ms\n");
+
         System.out.println("Radix sort:");
         start = System.nanoTime();
         System.out.println(Arrays.toString(radixSort(test)));
@@ -0,0 +1,181 @@
+package algorithms.search_sort;
+import java.util.Random;
+import java.lang.System;
+
+// Read-only search index over a sorted int[], stored in Eytzinger (BFS) order
+// The array is laid out like a binary heap: root at 1, children of k at 2k and 2k + 1
+// 1. The first levels of the tree sit next to each other, so they stay in cache
+// 2. The 16 descendants 4 levels below k are contiguous (64 bytes), so one load
+//    fetches ahead for the next 4 steps (software prefetch). Java can't align them:
+//    the int[] header (16 bytes on 64-bit HotSpot) shifts each block across 2 cache
+//    lines, and the load only brings the line of keys[16k] (the leftmost 12 or so)
+// 3. The loop has no data-dependent branch: k = 2k + (key < elem ? 1 : 0)
+//    compiles to a conditional move, so there is nothing to mispredict
+
+// Build: O(n), Lookup: O(log(n)), Space: n ints
+
+public class SortedIntIndex {
+    // keys[1..n] in Eytzinger order (keys[0] unused)
+    private final int[] keys;
+    private final int n;
+    // Depth of the last level, and number of nodes on it
+    private final int height;
+    private final int last_level;
+
+    public SortedIntIndex(int[] sorted_arr){
+        n = sorted_arr.length;
+        if (n >= 1 << 30){
+            // Positions up to 2n + 1 must fit in an int
+            throw new IllegalArgumentException("Too many keys: " + n);
+        }
+        for (int i = 1; i < n; i++){
+            if (sorted_arr[i - 1] > sorted_arr[i]){
+                throw new IllegalArgumentException("Array is not sorted at index " + i);
+            }
+        }
+        keys = new int[n + 1];
+        height = n == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+        last_level = n - (1 << height) + 1;
+        build(sorted_arr, 0, 1);
+    }
+
+    private int build(int[] sorted_arr, int i, int k){
+        // In-order traversal of the implicit tree fills it in sorted order
+        // i: next index of sorted_arr to place; returns the updated i
+        if (k <= n){
+            i = build(sorted_arr, i, 2 * k);
+            keys[k] = sorted_arr[i];
+            i++;
+            i = build(sorted_arr, i, 2 * k + 1);
+        }
+        return i;
+    }
+
+    private int rank(int k){
+        // Index in the sorted array of the node at position k, computed
+        // instead of stored (saves n ints and a cache miss per lookup)
+        // 1. In-order rank in the perfect tree of the same height
+        int depth = 31 - Integer.numberOfLeadingZeros(k);
+        int full_rank = ((2 * (k - (1 << depth)) + 1) << (height - depth)) - 1;
+        // 2. Minus the missing last-level nodes before it (they have the even
+        //    ranks 2 * last_level, 2 * last_level + 2, ...)
+        return full_rank - Math.max(0, (full_rank + 1) / 2 - last_level);
+    }
+
+    public int size(){
+        return n;
+    }
+
+    private int keepLoads(int touched){
+        // Java has no prefetch instruction: the prefetch loads must feed the result,
+        // or the JIT drops them. n < 2^30 (checked in the constructor), so this is
+        // always 0, but the JIT can't prove it. No shared field is written, so
+        // threads sharing the index don't fight over a cache line
+        return touched & (n >>> 30);
+    }
+
+    private int lowerBoundNode(int elem){
+        // Eytzinger position of the first key >= elem, or 0 if none
+        int k = 1;
+        int touched = 0;
+        int prefetch_limit = n >>> 4;
+        while (k <= prefetch_limit){
+            // Software prefetch: load the node 4 levels below (16k) now,
+            // so it is in cache when the search gets there
+            touched ^= keys[k << 4];
+            k = 2 * k + (keys[k] < elem ? 1 : 0);
+        }
+        while (k <= n){
+            // Last 4 levels: nothing below to prefetch
+            k = 2 * k + (keys[k] < elem ? 1 : 0);
+        }
+        // The path went right (1 bits) past every smaller key: drop those
+        // trailing 1s and the last left turn to get back to the answer
+        return (k >>> (Integer.numberOfTrailingZeros(~k) + 1)) | keepLoads(touched);
+    }
+
+    private int upperBoundNode(int elem){
+        // Eytzinger position of the first key > elem, or 0 if none
+        int k = 1;
+        int touched = 0;
+        int prefetch_limit = n >>> 4;
+        while (k <= prefetch_limit){
+            // Software prefetch: load the node 4 levels below (16k) now,
+            // so it is in cache when the search gets there
+            touched ^= keys[k << 4];
+            k = 2 * k + (keys[k] <= elem ? 1 : 0);
+        }
+        while (k <= n){
+            // Last 4 levels: nothing below to prefetch
+            k = 2 * k + (keys[k] <= elem ? 1 : 0);
+        }
+        return (k >>> (Integer.numberOfTrailingZeros(~k) + 1)) | keepLoads(touched);
+    }
+
+    public int lowerBound(int elem){
+        // Index (in the sorted array) of the first value >= elem, or n if none
+        int k = lowerBoundNode(elem);
+        return k == 0 ? n : rank(k);
+    }
+
+    public int upperBound(int elem){
+        // Index (in the sorted array) of the first value > elem, or n if none
+        int k = upperBoundNode(elem);
+        return k == 0 ? n : rank(k);
+    }
+
+    public int indexOf(int elem){
+        // Index (in the sorted array) of the first occurrence of elem, or -1
+        int k = lowerBoundNode(elem);
+        return k != 0 && keys[k] == elem ? rank(k) : -1;
+    }
+
+    public boolean contains(int elem){
+        int k = lowerBoundNode(elem);
+        return k != 0 && keys[k] == elem;
+    }
+
+    public static void main(String[] args){
+        // Compare lookups against Search.binarySearch on an array much larger than L3
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 25;
+        int num_queries = 5_000_000;
+        Random random = new Random(42);
+
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++){
+            sorted[i] = random.nextInt();
+        }
+        Sort.radixSort(sorted);
+        int[] queries = new int[num_queries];
+        for (int q = 0; q < num_queries; q++){
+            queries[q] = q % 2 == 0 ? sorted[random.nextInt(n)] : random.nextInt();
+        }
+
+        long start = System.nanoTime();
+        SortedIntIndex index = new SortedIntIndex(sorted);
+        long end = System.nanoTime();
+        System.out.println("n = " + n + ", build: " + (end - start) / 1000000L + " ms\n");
+
+        // A few rounds so the JIT has warmed up by the last one
+        for (int round = 0; round < 3; round++){
+            long found = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < num_queries; q++){
+                found += Search.binarySearch(sorted, 0, n - 1, queries[q]) >= 0 ? 1 : 0;
+            }
+            long binary = System.nanoTime() - start;
+
+            long found_index = 0;
+            start = System.nanoTime();
+            for (int q = 0; q < num_queries; q++){
+                found_index += index.indexOf(queries[q]) >= 0 ? 1 : 0;
+            }
+            long eytzinger = System.nanoTime() - start;
+
+            System.out.println("binarySearch: " + binary / num_queries + " ns/lookup, Eytzinger: "
+                + eytzinger / num_queries + " ns/lookup, speedup: "
+                + String.format("%.2f", (double) binary / eytzinger)
+                + (found == found_index ? "" : " (MISMATCH)"));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package algorithms.search_sort;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import java.util.Random;
+import java.lang.System;
+
+// SIMD linear scans with the Vector API (jdk.incubator.vector)
+// Compare a whole vector of ints (8 with AVX2, 16 with AVX-512, 4 with NEON)
+// against the key per step, and use the mask of matches to find the first hit
+// The tail that doesn't fill a vector is scanned one int at a time
+
+// Time complexity: O(n / lanes), Space complexity: O(1)
+// Needs the incubator module, both to compile and to run:
+//   javac --add-modules jdk.incubator.vector ...
+//   java --add-modules jdk.incubator.vector ...
+
+public class VectorSearch {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    public static int linearSearch(int[] arr, int start, int end, int elem){
+        // Same contract as Search.linearSearch: first index in [`start`, `end`]
+        // (both inclusive) holding `elem`, or -1
+        int i = start;
+        int vector_end = start + SPECIES.loopBound(end - start + 1);
+        for (; i < vector_end; i += SPECIES.length()){
+            VectorMask<Integer> hits = IntVector.fromArray(SPECIES, arr, i).compare(VectorOperators.EQ, elem);
+            if (hits.anyTrue()){
+                return i + hits.firstTrue();
+            }
+        }
+        for (; i <= end; i++){
+            if (arr[i] == elem){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int countOccurrences(int[] arr, int start, int end, int elem){
+        // Number of indices in [`start`, `end`] holding `elem`
+        int count = 0;
+        int i = start;
+        int vector_end = start + SPECIES.loopBound(end - start + 1);
+        for (; i < vector_end; i += SPECIES.length()){
+            count += IntVector.fromArray(SPECIES, arr, i).compare(VectorOperators.EQ, elem).trueCount();
+        }
+        for (; i <= end; i++){
+            if (arr[i] == elem){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static int indexOfAny(int[] arr, int start, int end, int[] needles){
+        // First index in [`start`, `end`] holding any of `needles`, or -1
+        // Each vector is compared against every needle: meant for a few needles
+        if (needles.length == 0){
+            return -1;
+        }
+        int i = start;
+        int vector_end = start + SPECIES.loopBound(end - start + 1);
+        for (; i < vector_end; i += SPECIES.length()){
+            IntVector block = IntVector.fromArray(SPECIES, arr, i);
+            VectorMask<Integer> hits = block.compare(VectorOperators.EQ, needles[0]);
+            for (int j = 1; j < needles.length; j++){
+                hits = hits.or(block.compare(VectorOperators.EQ, needles[j]));
+            }
+            if (hits.anyTrue()){
+                return i + hits.firstTrue();
+            }
+        }
+        for (; i <= end; i++){
+            for (int needle: needles){
+                if (arr[i] == needle){
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args){
+        // Compare against Search.linearSearch on small lookup tables
+        Random random = new Random(42);
+        System.out.println("Lanes: " + SPECIES.length());
+        int num_queries = 200_000;
+        for (int n: new int[]{16, 256, 1024, 4096}){
+            int[] table = new int[n];
+            for (int i = 0; i < n; i++){
+                table[i] = random.nextInt();
+            }
+            int[] queries = new int[num_queries];
+            for (int q = 0; q < num_queries; q++){
+                queries[q] = q % 2 == 0 ? table[random.nextInt(n)] : random.nextInt();
+            }
+
+            // A few rounds so the JIT has warmed up by the last one
+            long scalar = 0;
+            long vector = 0;
+            long check = 0;
+            for (int round = 0; round < 5; round++){
+                long start = System.nanoTime();
+                for (int q = 0; q < num_queries; q++){
+                    check += Search.linearSearch(table, 0, n - 1, queries[q]);
+                }
+                scalar = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int q = 0; q < num_queries; q++){
+                    check -= linearSearch(table, 0, n - 1, queries[q]);
+                }
+                vector = System.nanoTime() - start;
+            }
+            System.out.println("n = " + n + ": scalar " + scalar / num_queries + " ns/lookup, vector "
+                + vector / num_queries + " ns/lookup, speedup: " + String.format("%.2f", (double) scalar / vector)
+                + (check == 0 ? "" : " (MISMATCH)"));
+        }
+    }
+}